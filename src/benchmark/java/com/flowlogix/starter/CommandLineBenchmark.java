@@ -0,0 +1,61 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.flowlogix.starter;
+
+import com.flowlogix.starter.ArchetypeGenerator.Parameter;
+import com.flowlogix.starter.cache.ArchiveCache;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CommandLineBenchmark {
+    private final Parameter[] parameters = {
+            new Parameter("groupId", "com.example"),
+            new Parameter("artifactId", "starter"),
+            new Parameter("package", "com.example.starter"),
+            new Parameter("baseType", "payara"),
+            new Parameter("useShiro", "true"),
+            new Parameter("useOmniFaces", "true"),
+            new Parameter("usePrimeFaces", "false"),
+    };
+
+    @Benchmark
+    public List<String> commandLine() {
+        return ArchetypeGenerator.generateMavenCommandLine(parameters, "/tmp/project");
+    }
+
+    @Benchmark
+    public String cacheKey() {
+        return ArchiveCache.key(ArchetypeGenerator.extractParameters(parameters, null));
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.flowlogix.starter;
+
+import com.flowlogix.starter.ArchetypeGenerator.ReturnValue;
+import com.flowlogix.starter.engine.ProcessEngine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@SuppressWarnings("checkstyle:MagicNumber")
+public class ZipBenchmark {
+    private static final int FILES_PER_DIRECTORY = 20;
+    /**
+     * Keeps the source directory when a result streamed from it is closed.
+     */
+    private static final WorkspaceManager RETAINING = new WorkspaceManager() {
+        @Override
+        public void release(Path path) {
+        }
+    };
+
+    @Param({"10", "100", "1000"})
+    int files;
+    @Param({"1024", "8192"})
+    int fileSize;
+
+    private Path sourceDirectory;
+    private ExecutorService executor;
+
+    /**
+     * Archive format and buffer size, which only the benchmarks that write archives vary.
+     * The buffer size is the archive writer's chunk size, which also sizes the pipe.
+     */
+    @State(Scope.Benchmark)
+    public static class Streaming {
+        @Param({"4096", "65536"})
+        int bufferSize;
+        @Param({"ZIP", "STORED", "TAR_GZ"})
+        ArchiveFormat format;
+
+        private ArchiveWriter archiveWriter;
+        private ArchetypeGenerator generator;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            archiveWriter = new ArchiveWriter(true, bufferSize, -1, true, 3, ForkJoinPool.commonPool());
+            generator = new ArchetypeGenerator(1, new ProcessEngine(), new ArchetypeVersionResolver("", 0),
+                    archiveWriter);
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        sourceDirectory = Files.createTempDirectory(WorkspaceManager.PREFIX);
+        var random = new Random(files);
+        for (int ii = 0; ii < files; ++ii) {
+            var directory = sourceDirectory.resolve("src/main/java/package" + ii / FILES_PER_DIRECTORY);
+            Files.createDirectories(directory);
+            byte[] content = new byte[fileSize];
+            random.nextBytes(content);
+            Files.write(directory.resolve("File" + ii + ".java"), content);
+        }
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        executor.shutdownNow();
+        WorkspaceManager.delete(sourceDirectory);
+    }
+
+    @Benchmark
+    public long writeDirectory(Streaming streaming) throws IOException {
+        return streaming.archiveWriter.writeDirectory(sourceDirectory, streaming.format,
+                OutputStream.nullOutputStream(), new byte[streaming.bufferSize]);
+    }
+
+    @Benchmark
+    public void streamDirect(Streaming streaming) {
+        streaming.generator.streamZip(sourceResult(), streaming.format, OutputStream.nullOutputStream());
+    }
+
+    @Benchmark
+    public void streamPiped(Streaming streaming) {
+        streaming.generator.createZipStream(sourceResult(), streaming.format, OutputStream.nullOutputStream(),
+                executor);
+    }
+
+    private ReturnValue sourceResult() {
+        return new ReturnValue(sourceDirectory, 0, "").withWorkspaces(RETAINING);
+    }
+}
@@ -0,0 +1,156 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.flowlogix.starter;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.DoubleSupplier;
+
+/**
+ * Gradient style concurrency limit: grows by one while the limit is saturated and Maven run time
+ * stays near its observed minimum, shrinks multiplicatively when run time degrades
+ * or the host is short of CPU or memory.
+ * After shrinking, the generations that were already in flight complete before it reacts again,
+ * so one slow window shrinks the limit only once.
+ */
+final class AdaptiveLimit {
+    @SuppressWarnings("checkstyle:MagicNumber")
+    private static final double SMOOTHING = 0.2;
+    @SuppressWarnings("checkstyle:MagicNumber")
+    private static final double TOLERANCE = 0.8;
+    @SuppressWarnings("checkstyle:MagicNumber")
+    private static final double CONGESTED = 0.5;
+    @SuppressWarnings("checkstyle:MagicNumber")
+    private static final double BACKOFF = 0.9;
+    private static final double MAX_LOAD_PER_CPU = 1.0;
+    @SuppressWarnings("checkstyle:MagicNumber")
+    private static final double MIN_FREE_MEMORY = 0.1;
+    @SuppressWarnings("checkstyle:MagicNumber")
+    private static final int PROBE_INTERVAL = 100;
+    private static final Path MEMINFO = Path.of("/proc/meminfo");
+    private static final Path CGROUP = Path.of("/sys/fs/cgroup");
+    private final int min;
+    private final int max;
+    private final DoubleSupplier loadPerCpu;
+    private final DoubleSupplier freeMemory;
+    private double minRunNanos;
+    private double smoothedRunNanos;
+    private long samples;
+    private int recovering;
+
+    AdaptiveLimit(int min, int max) {
+        this(min, max, AdaptiveLimit::systemLoadPerCpu, () -> availableMemoryRatio(MEMINFO, CGROUP));
+    }
+
+    AdaptiveLimit(int min, int max, DoubleSupplier loadPerCpu, DoubleSupplier freeMemory) {
+        this.min = min;
+        this.max = Math.max(min, max);
+        this.loadPerCpu = loadPerCpu;
+        this.freeMemory = freeMemory;
+    }
+
+    int initial(int limit) {
+        return Math.clamp(limit, min, max);
+    }
+
+    int update(int limit, long runNanos, boolean saturated) {
+        if (min == max) {
+            return limit;
+        }
+        smoothedRunNanos = smoothedRunNanos == 0 ? runNanos : smoothedRunNanos + SMOOTHING * (runNanos - smoothedRunNanos);
+        // periodically forget the minimum, so a permanently slower environment becomes the new baseline
+        if (minRunNanos == 0 || runNanos < minRunNanos || ++samples % PROBE_INTERVAL == 0) {
+            minRunNanos = runNanos;
+        }
+        if (recovering > 0) {
+            --recovering;
+            return limit;
+        }
+        double gradient = minRunNanos / smoothedRunNanos;
+        if (gradient < CONGESTED || loadPerCpu.getAsDouble() > MAX_LOAD_PER_CPU
+                || freeMemory.getAsDouble() < MIN_FREE_MEMORY) {
+            recovering = limit - 1;
+            return Math.clamp(Math.min(limit - 1, (long) (limit * BACKOFF)), min, max);
+        } else if (saturated && gradient >= TOLERANCE) {
+            return Math.clamp(limit + 1L, min, max);
+        }
+        return limit;
+    }
+
+    private static double systemLoadPerCpu() {
+        var os = ManagementFactory.getOperatingSystemMXBean();
+        return Math.max(0, os.getSystemLoadAverage()) / os.getAvailableProcessors();
+    }
+
+    /**
+     * Page cache is reclaimable, so it counts as available: {@code MemAvailable} on the host,
+     * the limit less the memory in use, without inactive page cache, in a cgroup v2 container.
+     * Memory-backed workspaces are not reclaimable and count as used.
+     */
+    static double availableMemoryRatio(Path meminfo, Path cgroup) {
+        Map<String, Long> host = readValues(meminfo);
+        double ratio = host.containsKey("MemTotal") && host.containsKey("MemAvailable")
+                ? (double) host.get("MemAvailable") / host.get("MemTotal") : freeMemoryRatio();
+        long limit = readValue(cgroup.resolve("memory.max"));
+        long current = readValue(cgroup.resolve("memory.current"));
+        if (limit > 0 && current >= 0) {
+            long used = current - readValues(cgroup.resolve("memory.stat")).getOrDefault("inactive_file", 0L);
+            ratio = Math.min(ratio, (double) (limit - used) / limit);
+        }
+        return Math.clamp(ratio, 0, 1);
+    }
+
+    private static double freeMemoryRatio() {
+        if (ManagementFactory.getOperatingSystemMXBean() instanceof com.sun.management.OperatingSystemMXBean os
+                && os.getTotalMemorySize() > 0) {
+            return (double) os.getFreeMemorySize() / os.getTotalMemorySize();
+        }
+        return 1;
+    }
+
+    /**
+     * @return value of a single value file, or -1 if it's missing or unlimited
+     */
+    private static long readValue(Path file) {
+        try {
+            String value = Files.readString(file).trim();
+            return value.matches("\\d+") ? Long.parseLong(value) : -1;
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Reads {@code key value} or {@code key: value unit} lines
+     */
+    private static Map<String, Long> readValues(Path file) {
+        Map<String, Long> values = new HashMap<>();
+        try (var lines = Files.lines(file)) {
+            lines.map(line -> line.split("[:\\s]+")).filter(fields -> fields.length > 1 && fields[1].matches("\\d+"))
+                    .forEach(fields -> values.put(fields[0], Long.parseLong(fields[1])));
+        } catch (IOException e) {
+            return Map.of();
+        }
+        return values;
+    }
+}
@@ -0,0 +1,246 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.flowlogix.starter;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+@Slf4j
+@ApplicationScoped
+public class AdmissionController {
+    @SuppressWarnings("checkstyle:MagicNumber")
+    private static final double SMOOTHING = 0.2;
+    private final int maxQueue;
+    private final long maxWaitNanos;
+    @Getter
+    private final int maxPerClient;
+    private final AdaptiveLimit adaptiveLimit;
+    private final ReentrantLock lock = new ReentrantLock(true);
+    private final Deque<Condition> waiters = new ArrayDeque<>();
+    private final Map<String, Integer> clients = new HashMap<>();
+    private final AtomicLong rejected = new AtomicLong();
+    @Getter
+    private volatile int limit;
+    private int inFlight;
+    private double averageWaitNanos;
+    private double averageHoldNanos;
+
+    /**
+     * Only the run times of permits marked as {@link #succeeded()} adapt the limit,
+     * failed and cancelled runs are released without a sample.
+     */
+    public final class Permit implements AutoCloseable {
+        private final String clientId;
+        private final long acquired = System.nanoTime();
+        private final AtomicBoolean released = new AtomicBoolean();
+        private volatile boolean succeeded;
+
+        private Permit(String clientId) {
+            this.clientId = clientId;
+        }
+
+        public void succeeded() {
+            succeeded = true;
+        }
+
+        @Override
+        public void close() {
+            if (released.compareAndSet(false, true)) {
+                release(clientId, System.nanoTime() - acquired, succeeded);
+            }
+        }
+    }
+
+    public AdmissionController() {
+        this(1, Integer.MAX_VALUE, Long.MAX_VALUE, 0);
+    }
+
+    public AdmissionController(int limit, int maxQueue, long maxWaitSeconds, int maxPerClient) {
+        this(limit, limit, limit, maxQueue, maxWaitSeconds, maxPerClient);
+    }
+
+    /**
+     * The limit starts at {@code generator-threads}, which is also its ceiling, unless {@code max-limit} is set.
+     * It adapts between {@code min-limit} and the ceiling.
+     */
+    @Inject
+    public AdmissionController(@ConfigProperty(name = "com.flowlogix.starter.generator-threads", defaultValue = "4")
+                               int limit,
+                               @ConfigProperty(name = "com.flowlogix.starter.admission.min-limit",
+                                       defaultValue = "1") int minLimit,
+                               @ConfigProperty(name = "com.flowlogix.starter.admission.max-limit",
+                                       defaultValue = "0") int maxLimit,
+                               @ConfigProperty(name = "com.flowlogix.starter.admission.max-queue",
+                                       defaultValue = "32") int maxQueue,
+                               @ConfigProperty(name = "com.flowlogix.starter.admission.max-wait-seconds",
+                                       defaultValue = "30") long maxWaitSeconds,
+                               @ConfigProperty(name = "com.flowlogix.starter.admission.max-per-client",
+                                       defaultValue = "0") int maxPerClient) {
+        this(new AdaptiveLimit(minLimit, maxLimit > 0 ? maxLimit : limit), limit, maxQueue, maxWaitSeconds, maxPerClient);
+        log.debug("Admission limit: {} ({} - {}), max queue: {}, max wait: {}s, max per client: {}",
+                this.limit, minLimit, maxLimit, maxQueue, maxWaitSeconds, maxPerClient);
+    }
+
+    AdmissionController(AdaptiveLimit adaptiveLimit, int limit, int maxQueue, long maxWaitSeconds, int maxPerClient) {
+        this.adaptiveLimit = adaptiveLimit;
+        this.limit = adaptiveLimit.initial(limit);
+        this.maxQueue = maxQueue;
+        this.maxWaitNanos = TimeUnit.SECONDS.toNanos(maxWaitSeconds);
+        this.maxPerClient = maxPerClient;
+    }
+
+    public Permit acquire(String clientId) {
+        long start = System.nanoTime();
+        lock.lock();
+        try {
+            log.debug("In flight: {}, queued: {}, limit: {}", inFlight, waiters.size(), limit);
+            if (inFlight >= limit && waiters.size() >= maxQueue) {
+                throw reject("Generation queue is full");
+            }
+            if (maxPerClient > 0 && clientId != null && clients.getOrDefault(clientId, 0) >= maxPerClient) {
+                throw reject("Too many concurrent requests from client");
+            }
+            clients.merge(String.valueOf(clientId), 1, Integer::sum);
+            try {
+                admit(clientId);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new GenerationCancelledException("Cancelled waiting for a generator", e);
+            }
+            averageWaitNanos = average(averageWaitNanos, System.nanoTime() - start);
+            return new Permit(clientId);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getInFlight() {
+        return locked(() -> inFlight);
+    }
+
+    public int getQueueDepth() {
+        return locked(waiters::size);
+    }
+
+    public Duration getAverageWait() {
+        return Duration.ofNanos(locked(() -> (long) averageWaitNanos));
+    }
+
+    public Duration getAverageHold() {
+        return Duration.ofNanos(locked(() -> (long) averageHoldNanos));
+    }
+
+    public long getRejected() {
+        return rejected.get();
+    }
+
+    /**
+     * Permits are handed off in arrival order: once anyone is waiting, new arrivals queue
+     * behind them, and only the oldest waiter is woken up when a permit frees up.
+     */
+    private void admit(String clientId) throws InterruptedException {
+        if (waiters.isEmpty() && inFlight < limit) {
+            ++inFlight;
+            return;
+        }
+        Condition turn = lock.newCondition();
+        waiters.addLast(turn);
+        try {
+            long remaining = maxWaitNanos;
+            while (waiters.peekFirst() != turn || inFlight >= limit) {
+                if (remaining <= 0) {
+                    releaseClient(clientId);
+                    throw reject("Timed out waiting for a generator");
+                }
+                remaining = turn.awaitNanos(remaining);
+            }
+            ++inFlight;
+        } catch (InterruptedException e) {
+            releaseClient(clientId);
+            throw e;
+        } finally {
+            waiters.remove(turn);
+            signalNext();
+        }
+    }
+
+    private void signalNext() {
+        if (inFlight < limit && !waiters.isEmpty()) {
+            waiters.peekFirst().signal();
+        }
+    }
+
+    private void release(String clientId, long heldNanos, boolean succeeded) {
+        lock.lock();
+        try {
+            if (succeeded) {
+                int previous = limit;
+                limit = adaptiveLimit.update(previous, heldNanos, inFlight >= previous || !waiters.isEmpty());
+                if (limit != previous) {
+                    log.debug("Admission limit changed from {} to {}", previous, limit);
+                }
+            }
+            --inFlight;
+            averageHoldNanos = average(averageHoldNanos, heldNanos);
+            releaseClient(clientId);
+            signalNext();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void releaseClient(String clientId) {
+        clients.computeIfPresent(String.valueOf(clientId), (key, count) -> count > 1 ? count - 1 : null);
+    }
+
+    private AdmissionRejectedException reject(String reason) {
+        rejected.incrementAndGet();
+        long retryAfterNanos = (long) (averageHoldNanos * (waiters.size() + 1) / Math.max(1, limit));
+        var retryAfter = Duration.ofSeconds(Math.max(1, TimeUnit.NANOSECONDS.toSeconds(retryAfterNanos)));
+        log.debug("Rejected generation request: {}, retry after {}", reason, retryAfter);
+        return new AdmissionRejectedException(reason, retryAfter);
+    }
+
+    private static double average(double average, long sample) {
+        return average == 0 ? sample : average + SMOOTHING * (sample - average);
+    }
+
+    private <T> T locked(Supplier<T> supplier) {
+        lock.lock();
+        try {
+            return supplier.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
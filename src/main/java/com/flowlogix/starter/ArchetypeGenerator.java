@@ -18,46 +18,106 @@
  */
 package com.flowlogix.starter;
 
+import com.flowlogix.starter.cache.ArchiveCache;
+import com.flowlogix.starter.engine.GeneratorEngine;
+import com.flowlogix.starter.engine.ProcessEngine;
+import com.flowlogix.starter.snapshot.Snapshot;
+import com.flowlogix.starter.snapshot.SnapshotStore;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.inject.Any;
+import jakarta.enterprise.inject.Instance;
+import jakarta.enterprise.inject.literal.NamedLiteral;
 import jakarta.inject.Inject;
 import lombok.NonNull;
 import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
-import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
 import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.omnifaces.util.Faces;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.PipedInputStream;
 import java.io.PipedOutputStream;
-import java.nio.file.Files;
+import java.nio.ByteBuffer;
 import java.nio.file.Path;
-import java.util.Comparator;
+import java.time.Duration;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
-import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Stream;
-import static com.flowlogix.util.Streams.readString;
-import static java.util.function.Predicate.not;
 
 @Slf4j
 @ApplicationScoped
 public class ArchetypeGenerator {
-    @SuppressWarnings("checkstyle:MagicNumber")
-    private static final int BUFFER_SIZE = 4096;
-    private final Semaphore semaphore;
+    /** Parameter selecting the archetype version, {@code LATEST} when absent. */
+    public static final String ARCHETYPE_VERSION = "archetypeVersion";
+    static final String ARCHETYPE_GROUP_ID = "com.flowlogix.archetypes";
+    static final String ARCHETYPE_ARTIFACT_ID = "starter";
+    private final AdmissionController admission;
+    private final ArchiveCache cache;
+    private final ArchetypeVersionResolver versionResolver;
+    private final GeneratorEngine engine;
+    private final WorkspaceManager workspaces;
+    private final GeneratorMetrics metrics;
+    private final SnapshotStore snapshots;
+    private final ArchiveWriter archiveWriter;
+    private final RequestCoalescer coalescer;
 
     public record Parameter(@NonNull String key, String value) { }
-    public record ReturnValue(Path temporaryPath, int status, String output) implements AutoCloseable {
+    public record ReturnValue(Path temporaryPath, int status, String output, ByteBuffer archive,
+                              Map<String, String> parameters, AtomicInteger consumers,
+                              WorkspaceManager workspaces) implements AutoCloseable {
+        public ReturnValue(Path temporaryPath, int status, String output) {
+            this(temporaryPath, status, output, null, Map.of());
+        }
+
+        public ReturnValue(Path temporaryPath, int status, String output, ByteBuffer archive,
+                           Map<String, String> parameters) {
+            this(temporaryPath, status, output, archive, parameters, null, null);
+        }
+
+        public ReturnValue withArchive(ByteBuffer archive) {
+            return new ReturnValue(temporaryPath, status, output, archive, parameters, consumers, workspaces);
+        }
+
+        public ReturnValue withParameters(Map<String, String> parameters) {
+            return new ReturnValue(temporaryPath, status, output, archive, parameters, consumers, workspaces);
+        }
+
+        ReturnValue withConsumers(int count) {
+            return new ReturnValue(temporaryPath, status, output, archive, parameters, new AtomicInteger(count),
+                    workspaces);
+        }
+
+        ReturnValue withWorkspaces(WorkspaceManager workspaces) {
+            return new ReturnValue(temporaryPath, status, output, archive, parameters, consumers, workspaces);
+        }
+
+        /**
+         * Each consumer of a shared result closes it exactly once, the workspace is released
+         * to the manager that created it when the last one does.
+         * Results created outside of a workspace manager are deleted right away.
+         */
         @Override
         @SneakyThrows(IOException.class)
         public void close() {
-            cleanup(this);
+            if (release() && temporaryPath != null) {
+                if (workspaces != null) {
+                    workspaces.release(temporaryPath);
+                } else {
+                    WorkspaceManager.delete(temporaryPath);
+                }
+            }
+        }
+
+        private boolean release() {
+            return consumers == null || consumers.decrementAndGet() == 0;
         }
     }
 
@@ -65,31 +125,198 @@ public class ArchetypeGenerator {
         this(1);
     }
 
+    public ArchetypeGenerator(int generatorThreads) {
+        this(generatorThreads, new ProcessEngine());
+    }
+
+    ArchetypeGenerator(int generatorThreads, GeneratorEngine engine) {
+        this(generatorThreads, engine, new ArchetypeVersionResolver("", 0));
+    }
+
+    ArchetypeGenerator(int generatorThreads, GeneratorEngine engine, ArchetypeVersionResolver versionResolver) {
+        this(generatorThreads, engine, versionResolver, new ArchiveWriter());
+    }
+
+    ArchetypeGenerator(int generatorThreads, GeneratorEngine engine, ArchetypeVersionResolver versionResolver,
+                       ArchiveWriter archiveWriter) {
+        this(new AdmissionController(generatorThreads, Integer.MAX_VALUE, Long.MAX_VALUE, 0), new ArchiveCache(),
+                versionResolver, engine, new WorkspaceManager(), new GeneratorMetrics(),
+                new SnapshotStore(), archiveWriter);
+    }
+
     @Inject
-    public ArchetypeGenerator(@ConfigProperty(name = "com.flowlogix.starter.generator-threads", defaultValue = "4")
-                              int generatorThreads) {
-        log.debug("Generator threads: {}", generatorThreads);
-        semaphore = new Semaphore(generatorThreads);
+    public ArchetypeGenerator(AdmissionController admission, ArchiveCache cache, ArchetypeVersionResolver versionResolver,
+                              @ConfigProperty(name = "com.flowlogix.starter.engine", defaultValue = ProcessEngine.NAME)
+                              String engineName, @Any Instance<GeneratorEngine> engines, WorkspaceManager workspaces,
+                              GeneratorMetrics metrics, SnapshotStore snapshots, ArchiveWriter archiveWriter) {
+        this(admission, cache, versionResolver, selectEngine(engineName.trim(), engines),
+                workspaces, metrics, snapshots, archiveWriter);
+    }
+
+    private ArchetypeGenerator(AdmissionController admission, ArchiveCache cache,
+                               ArchetypeVersionResolver versionResolver, GeneratorEngine engine,
+                               WorkspaceManager workspaces, GeneratorMetrics metrics, SnapshotStore snapshots,
+                               ArchiveWriter archiveWriter) {
+        this.admission = admission;
+        this.cache = cache;
+        this.versionResolver = versionResolver;
+        this.engine = engine;
+        this.workspaces = workspaces;
+        this.metrics = metrics;
+        this.snapshots = snapshots;
+        this.archiveWriter = archiveWriter;
+        this.coalescer = new RequestCoalescer(metrics);
+    }
+
+    /**
+     * Engines that don't exist, such as ones removed in earlier versions, fall back to the default engine
+     * rather than failing the deployment.
+     */
+    static GeneratorEngine selectEngine(String engineName, Instance<GeneratorEngine> engines) {
+        Instance<GeneratorEngine> engine = engines.select(NamedLiteral.of(engineName));
+        if (engine.isResolvable()) {
+            log.debug("Generator engine: {}", engineName);
+            return engine.get();
+        }
+        log.warn("Unknown generator engine {}, using {}", engineName, ProcessEngine.NAME);
+        return engines.select(NamedLiteral.of(ProcessEngine.NAME)).get();
     }
 
-    @SneakyThrows({IOException.class, InterruptedException.class})
     public ReturnValue generateArchetype(Parameter[] inputParameters) {
-        log.debug("Available Permits: {}", semaphore.availablePermits());
-        semaphore.acquire();
-        try {
-            Path temporaryPath = getTemporaryPath();
+        return generateArchetype(inputParameters, null);
+    }
+
+    public ReturnValue generateArchetype(Parameter[] inputParameters, String clientId) {
+        Parameter[] parameters = pinVersion(inputParameters);
+        Map<String, String> effectiveParameters = extractParameters(parameters, null);
+        if (ArchetypeVersionResolver.isLatest(effectiveParameters.get(ARCHETYPE_VERSION))) {
+            return coalescer.coalesce(effectiveParameters, () -> runMaven(parameters, clientId));
+        }
+        if (cache.isEnabled()) {
+            String cacheKey = ArchiveCache.key(effectiveParameters);
+            Optional<ByteBuffer> cached = cache.get(cacheKey);
+            metrics.cacheLookup(effectiveParameters, cached.isPresent());
+            if (cached.isPresent()) {
+                log.debug("Archive cache hit: {}", cacheKey);
+                return new ReturnValue(null, 0, "", cached.get(), effectiveParameters);
+            }
+            return coalescer.coalesce(effectiveParameters, () -> generate(parameters, effectiveParameters, cacheKey, clientId));
+        }
+        return coalescer.coalesce(effectiveParameters, () -> generate(parameters, effectiveParameters, null, clientId));
+    }
+
+    /**
+     * Replaces {@code LATEST} with the concrete archetype version, once per request,
+     * so that the entity tag, the cache and Maven agree on the version.
+     *
+     * @return the parameters with the version pinned, or unchanged if it can't be resolved
+     */
+    public Parameter[] pinVersion(Parameter[] inputParameters) {
+        String requested = extractParameters(inputParameters, null).get(ARCHETYPE_VERSION);
+        Optional<String> version = versionResolver.resolve(requested);
+        if (version.isEmpty()) {
+            return inputParameters;
+        }
+        if (ArchetypeVersionResolver.isLatest(requested)) {
+            snapshots.retainLatest(version.get());
+        }
+        return withParameter(inputParameters, new Parameter(ARCHETYPE_VERSION, version.get()));
+    }
+
+    /**
+     * Regenerates the cached archive, unless it's cached already and stays valid for at least {@code margin}.
+     *
+     * @return true if the cache holds a fresh archive afterwards
+     */
+    public boolean refresh(Parameter[] inputParameters, Duration margin, String clientId) {
+        if (!cache.isEnabled()) {
+            return false;
+        }
+        Parameter[] parameters = pinVersion(inputParameters);
+        Map<String, String> effectiveParameters = extractParameters(parameters, null);
+        if (ArchetypeVersionResolver.isLatest(effectiveParameters.get(ARCHETYPE_VERSION))) {
+            return false;
+        }
+        String cacheKey = ArchiveCache.key(effectiveParameters);
+        if (cache.isFresh(cacheKey, margin)) {
+            return true;
+        }
+        ReturnValue result = coalescer.coalesce(effectiveParameters,
+                () -> generate(parameters, effectiveParameters, cacheKey, clientId));
+        result.close();
+        if (result.status() != 0) {
+            log.warn("Failed to refresh cached archive: {}", result.output());
+        }
+        return result.status() == 0;
+    }
+
+    @SneakyThrows(IOException.class)
+    private ReturnValue generate(Parameter[] parameters, Map<String, String> effectiveParameters,
+                                 String cacheKey, String clientId) {
+        Optional<byte[]> rendered = renderSnapshot(parameters, effectiveParameters, clientId);
+        if (rendered.isPresent()) {
+            return new ReturnValue(null, 0, "", cacheKey != null ? cache.put(cacheKey, rendered.get())
+                    : ByteBuffer.wrap(rendered.get()), effectiveParameters);
+        }
+        ReturnValue result = runMaven(parameters, clientId);
+        if (cacheKey != null && result.status() == 0) {
+            long start = System.nanoTime();
+            byte[] archive = archiveWriter.toBytes(result.temporaryPath());
+            metrics.zipBuilt(result.parameters(), System.nanoTime() - start, archive.length);
+            return result.withArchive(cache.put(cacheKey, archive));
+        }
+        return result;
+    }
+
+    private Optional<byte[]> renderSnapshot(Parameter[] parameters, Map<String, String> effectiveParameters,
+                                            String clientId) throws IOException {
+        if (!snapshots.isEnabled()) {
+            return Optional.empty();
+        }
+        Optional<Snapshot> snapshot = snapshots.get(effectiveParameters, () -> buildSnapshot(parameters, clientId));
+        if (snapshot.isEmpty()) {
+            return Optional.empty();
+        }
+        long start = System.nanoTime();
+        var bytes = new ByteArrayOutputStream();
+        snapshot.get().render(effectiveParameters, bytes, archiveWriter.getCompressionLevel());
+        metrics.zipBuilt(effectiveParameters, System.nanoTime() - start, bytes.size());
+        return Optional.of(bytes.toByteArray());
+    }
+
+    @SneakyThrows(IOException.class)
+    private Optional<Snapshot> buildSnapshot(Parameter[] parameters, String clientId) {
+        try (ReturnValue result = runMaven(Snapshot.withSentinels(parameters), clientId)) {
+            if (result.status() != 0) {
+                log.warn("Failed to build project snapshot: {}", result.output());
+                return Optional.empty();
+            }
+            return Optional.of(Snapshot.load(result.temporaryPath()));
+        }
+    }
+
+    @SneakyThrows(IOException.class)
+    private ReturnValue runMaven(Parameter[] inputParameters, String clientId) {
+        Map<String, String> parameters = extractParameters(inputParameters, null);
+        long start = System.nanoTime();
+        try (var permit = admission.acquire(clientId)) {
+            metrics.permitWait(parameters, System.nanoTime() - start);
+            Path temporaryPath = workspaces.create();
             String projectDirectory = temporaryPath.toString();
             List<String> options = generateMavenCommandLine(inputParameters, projectDirectory);
             log.debug("Options: {}", options);
+            start = System.nanoTime();
             try {
-                Process mavenProcess = new ProcessBuilder().command(options).directory(temporaryPath.toFile()).start();
-                return new ReturnValue(temporaryPath, mavenProcess.waitFor(), readString(mavenProcess.getInputStream()));
-            } catch (IOException e) {
-                log.debug("Failed to execute Maven process", e);
-                return new ReturnValue(temporaryPath, -1, e.getMessage());
+                ReturnValue result = engine.generate(temporaryPath, options);
+                metrics.mavenRun(parameters, System.nanoTime() - start, result.status());
+                if (result.status() == 0) {
+                    permit.succeeded();
+                }
+                return result.withParameters(parameters).withWorkspaces(workspaces);
+            } catch (RuntimeException e) {
+                workspaces.release(temporaryPath);
+                throw e;
             }
-        } finally {
-            semaphore.release();
         }
     }
 
@@ -100,45 +327,88 @@ public class ArchetypeGenerator {
                         .formatted(entry.getKey(), entry.getValue()))).toList();
     }
 
+    public boolean isDirectStreaming() {
+        return archiveWriter.isDirectStreaming();
+    }
+
     public Future<ReturnValue> zipToStream(ReturnValue returnValue, OutputStream zipFileStream,
                                            ExecutorService executorService) {
-        return executorService.submit(() -> zipToStream(returnValue, zipFileStream));
+        return zipToStream(returnValue, ArchiveFormat.ZIP, zipFileStream, executorService);
+    }
+
+    public Future<ReturnValue> zipToStream(ReturnValue returnValue, ArchiveFormat format, OutputStream zipFileStream,
+                                           ExecutorService executorService) {
+        return executorService.submit(() -> zipToStream(returnValue, format, zipFileStream));
     }
 
     @SneakyThrows(IOException.class)
-    public void createZipStream(ReturnValue result, OutputStream outputStream, ExecutorService executorService) {
+    public void createZipStream(ReturnValue result, ArchiveFormat format, OutputStream outputStream,
+                                ExecutorService executorService) {
         try (var output = new PipedOutputStream();
-             var input = new PipedInputStream(output, BUFFER_SIZE)) {
-            zipToStream(result, output, executorService);
+             var input = new PipedInputStream(output, archiveWriter.getChunkSize())) {
+            zipToStream(result, format, output, executorService);
             writer(result, input, outputStream, false);
         }
     }
 
     @SneakyThrows(IOException.class)
-    public InputStream createZipStream(ReturnValue result, ExecutorService executorService) {
+    public InputStream createZipStream(ReturnValue result, ArchiveFormat format, ExecutorService executorService) {
         var output = new PipedOutputStream();
-        zipToStream(result, output, executorService);
-        return new PipedInputStream(output, BUFFER_SIZE);
+        zipToStream(result, format, output, executorService);
+        return new PipedInputStream(output, archiveWriter.getChunkSize());
     }
 
-    public void writer(ReturnValue result, InputStream inputStream, OutputStream outputStream, boolean closeStreams) {
+    public void streamZip(ReturnValue result, ArchiveFormat format, OutputStream outputStream) {
+        long start = System.nanoTime();
+        int chunkSize = archiveWriter.getChunkSize();
         try {
-            while (true) {
-                byte[] readBytes = inputStream.readNBytes(BUFFER_SIZE);
-                if (readBytes.length == 0) {
-                    break;
-                }
-                log.debug("Writing {} bytes to output stream", readBytes.length);
-                outputStream.write(readBytes);
-                outputStream.flush();
+            long bytes = archiveWriter.write(result, format, new BufferedOutputStream(outputStream, chunkSize),
+                    new byte[chunkSize]);
+            metrics.streamed(result.parameters(), System.nanoTime() - start, bytes);
+        } catch (IOException e) {
+            aborted(result, e);
+        } finally {
+            result.close();
+        }
+    }
+
+    /**
+     * Streams an archive that is already built, or a range of it.
+     */
+    public void streamArchive(ReturnValue result, ByteBuffer archive, OutputStream outputStream) {
+        long start = System.nanoTime();
+        try {
+            long bytes = archive.remaining();
+            byte[] buffer = new byte[archiveWriter.getChunkSize()];
+            while (archive.hasRemaining()) {
+                int length = Math.min(buffer.length, archive.remaining());
+                archive.get(buffer, 0, length);
+                outputStream.write(buffer, 0, length);
             }
+            outputStream.flush();
+            metrics.streamed(result.parameters(), System.nanoTime() - start, bytes);
         } catch (IOException e) {
-            log.debug("Failed to stream zip file.", e);
-            if (Faces.hasContext()) {
-                Faces.responseComplete();
+            aborted(result, e);
+        } finally {
+            result.close();
+        }
+    }
+
+    public void writer(ReturnValue result, InputStream inputStream, OutputStream outputStream, boolean closeStreams) {
+        long start = System.nanoTime();
+        try {
+            byte[] buffer = new byte[archiveWriter.getChunkSize()];
+            long bytes = 0;
+            int bytesRead;
+            while ((bytesRead = inputStream.read(buffer)) >= 0) {
+                outputStream.write(buffer, 0, bytesRead);
+                bytes += bytesRead;
             }
+            outputStream.flush();
+            metrics.streamed(result.parameters(), System.nanoTime() - start, bytes);
+        } catch (IOException e) {
+            aborted(result, e);
         } finally {
-            log.debug("Cleanup");
             result.close();
             if (closeStreams) {
                 try {
@@ -152,24 +422,76 @@ public class ArchetypeGenerator {
     }
 
     @SneakyThrows(IOException.class)
-    private static ReturnValue zipToStream(ReturnValue returnValue, OutputStream zipFileStream) {
-        if (returnValue.status == 0) {
-            createZipFile(returnValue.temporaryPath, zipFileStream);
-        }
+    private ReturnValue zipToStream(ReturnValue returnValue, ArchiveFormat format, OutputStream zipFileStream) {
+        archiveWriter.write(returnValue, format, zipFileStream, new byte[archiveWriter.getChunkSize()]);
         return returnValue;
     }
 
-    private static void cleanup(ReturnValue returnValue) throws IOException {
-        try (var paths = Files.walk(returnValue.temporaryPath)) {
-            paths.sorted(Comparator.reverseOrder()).forEach(ArchetypeGenerator::deleteFile);
+    /**
+     * Identifies the archive that the parameters produce in the given format,
+     * which stays the same until the archetype version or the archive settings change.
+     * Only parameters pinned by {@link #pinVersion(Parameter[])} get a tag, since Maven resolves
+     * {@code LATEST} on its own and might generate a different version than the tag names.
+     */
+    public Optional<String> entityTag(Parameter[] pinnedParameters, ArchiveFormat format) {
+        Map<String, String> parameters = extractParameters(pinnedParameters, null);
+        if (ArchetypeVersionResolver.isLatest(parameters.get(ARCHETYPE_VERSION))) {
+            return Optional.empty();
+        }
+        parameters.put("format", format.getName());
+        parameters.put("compressionLevel", Integer.toString(archiveWriter.getCompressionLevel()));
+        parameters.put("zstdLevel", Integer.toString(archiveWriter.getZstdLevel()));
+        parameters.put("snapshot", Boolean.toString(snapshots.isEnabled()));
+        return Optional.of(ArchiveCache.key(parameters));
+    }
+
+    /**
+     * @return the complete archive in the requested format, if the result already holds a built archive
+     */
+    @SneakyThrows(IOException.class)
+    public Optional<ByteBuffer> materialize(ReturnValue result, ArchiveFormat format) {
+        if (result.archive() == null) {
+            return Optional.empty();
+        } else if (format == ArchiveFormat.ZIP) {
+            return Optional.of(result.archive().duplicate());
+        }
+        var bytes = new ByteArrayOutputStream();
+        archiveWriter.write(result, format, bytes, new byte[archiveWriter.getChunkSize()]);
+        return Optional.of(ByteBuffer.wrap(bytes.toByteArray()));
+    }
+
+    /**
+     * Builds the complete archive in memory and releases the result.
+     */
+    public ByteBuffer buildArchive(ReturnValue result, ArchiveFormat format) throws IOException {
+        try {
+            Optional<ByteBuffer> archive = materialize(result, format);
+            if (archive.isPresent()) {
+                return archive.get();
+            }
+            long start = System.nanoTime();
+            var bytes = new ByteArrayOutputStream();
+            archiveWriter.write(result, format, bytes, new byte[archiveWriter.getChunkSize()]);
+            metrics.zipBuilt(result.parameters(), System.nanoTime() - start, bytes.size());
+            return ByteBuffer.wrap(bytes.toByteArray());
+        } finally {
+            result.close();
         }
     }
 
-    private static Map<String, String> extractParameters(Parameter[] inputParameters, String projectDirectory) {
+    private void aborted(ReturnValue result, IOException e) {
+        log.debug("Failed to stream zip file.", e);
+        metrics.clientAborted(result.parameters());
+        if (Faces.hasContext()) {
+            Faces.responseComplete();
+        }
+    }
+
+    static Map<String, String> extractParameters(Parameter[] inputParameters, String projectDirectory) {
         Map<String, String> parameters = new LinkedHashMap<>();
-        parameters.put("archetypeGroupId", "com.flowlogix.archetypes");
-        parameters.put("archetypeArtifactId", "starter");
-        parameters.put("archetypeVersion", "LATEST");
+        parameters.put("archetypeGroupId", ARCHETYPE_GROUP_ID);
+        parameters.put("archetypeArtifactId", ARCHETYPE_ARTIFACT_ID);
+        parameters.put(ARCHETYPE_VERSION, ArchetypeVersionResolver.LATEST);
         parameters.put("interactiveMode", "false");
         if (projectDirectory != null) {
             parameters.put("maven.multiModuleProjectDirectory", projectDirectory);
@@ -192,37 +514,8 @@ public class ArchetypeGenerator {
         return parameters;
     }
 
-    private Path getTemporaryPath() throws IOException {
-        Path path =  Files.createTempDirectory("starter-generator-project-");
-        if (!path.resolve(".mvn").toFile().mkdirs()) {
-            throw new IOException("Unable to create directory");
-        }
-        log.debug("Created temporary project directory: {}", path);
-        return path;
-    }
-
-    @SneakyThrows(IOException.class)
-    private static void deleteFile(Path path) {
-        Files.delete(path);
-    }
-
-    private static void createZipFile(Path sourceDirPath, OutputStream outputStream) throws IOException {
-        try (var zipOutputStream = new ZipArchiveOutputStream(outputStream);
-             var sourceDirPaths = Files.walk(sourceDirPath)) {
-            sourceDirPaths.filter(not(Files::isDirectory))
-                    .forEach(path -> addZipEntry(sourceDirPath, path, zipOutputStream));
-        }
-    }
-
-    @SneakyThrows(IOException.class)
-    @SuppressWarnings({"checkstyle:IllegalTokenText", "checkstyle:MagicNumber"})
-    private static void addZipEntry(Path sourceDirPath, Path path, ZipArchiveOutputStream zipOutputStream) {
-        ZipArchiveEntry zipEntry = new ZipArchiveEntry(sourceDirPath.relativize(path).toString());
-        if (Files.isExecutable(path)) {
-            zipEntry.setUnixMode(0755);
-        }
-        zipOutputStream.putArchiveEntry(zipEntry);
-        Files.copy(path, zipOutputStream);
-        zipOutputStream.closeArchiveEntry();
+    static Parameter[] withParameter(Parameter[] inputParameters, Parameter parameter) {
+        return Stream.concat(inputParameters == null ? Stream.empty() : Stream.of(inputParameters),
+                Stream.of(parameter)).toArray(Parameter[]::new);
     }
 }
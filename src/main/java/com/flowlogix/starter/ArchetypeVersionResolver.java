@@ -0,0 +1,140 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.flowlogix.starter;
+
+import com.flowlogix.starter.cache.ArchiveCache;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import lombok.extern.slf4j.Slf4j;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+@Slf4j
+@ApplicationScoped
+public class ArchetypeVersionResolver {
+    static final String LATEST = "LATEST";
+    private static final Pattern RELEASE_PATTERN = Pattern.compile("<release>\\s*([^<\\s]+)\\s*</release>");
+    @SuppressWarnings("checkstyle:MagicNumber")
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(10);
+    @SuppressWarnings("checkstyle:MagicNumber")
+    private static final Duration FAILURE_BACKOFF = Duration.ofSeconds(60);
+    private final URI metadataURI;
+    private final Duration refreshInterval;
+    private final ArchiveCache cache;
+    private final ReentrantLock fetchLock = new ReentrantLock();
+    private volatile ResolvedVersion resolved;
+
+    private record ResolvedVersion(String version, Instant expires) { }
+
+    public ArchetypeVersionResolver() {
+        this("https://repo.maven.apache.org/maven2", 0);
+    }
+
+    public ArchetypeVersionResolver(String repositoryURL, long refreshMinutes) {
+        this(repositoryURL, refreshMinutes, new ArchiveCache());
+    }
+
+    /**
+     * Without a repository, {@code LATEST} is left for Maven to resolve.
+     * With a shared cache, all nodes agree on {@code LATEST} and only one of them needs to look it up.
+     */
+    @Inject
+    public ArchetypeVersionResolver(@ConfigProperty(name = "com.flowlogix.starter.archetype-repository",
+                                            defaultValue = "https://repo.maven.apache.org/maven2") String repositoryURL,
+                                    @ConfigProperty(name = "com.flowlogix.starter.archetype-version-refresh-minutes",
+                                            defaultValue = "10") long refreshMinutes, ArchiveCache cache) {
+        this.cache = cache;
+        metadataURI = repositoryURL.isBlank() ? null
+                : URI.create("%s/%s/%s/maven-metadata.xml".formatted(repositoryURL.replaceAll("/+$", ""),
+                ArchetypeGenerator.ARCHETYPE_GROUP_ID.replace('.', '/'), ArchetypeGenerator.ARCHETYPE_ARTIFACT_ID));
+        refreshInterval = Duration.ofMinutes(refreshMinutes);
+    }
+
+    public Optional<String> resolve(String version) {
+        return isLatest(version) ? latest() : Optional.of(version.trim());
+    }
+
+    static boolean isLatest(String version) {
+        return version == null || version.isBlank() || LATEST.equals(version.trim());
+    }
+
+    /**
+     * Concurrent lookups share a single fetch. When the fetch fails, the previous version, if any,
+     * is served without asking again until the backoff is over.
+     */
+    public Optional<String> latest() {
+        var current = resolved;
+        if (current != null && Instant.now().isBefore(current.expires())) {
+            return Optional.ofNullable(current.version());
+        }
+        fetchLock.lock();
+        try {
+            current = resolved;
+            if (current != null && Instant.now().isBefore(current.expires())) {
+                return Optional.ofNullable(current.version());
+            }
+            return fetch(current);
+        } finally {
+            fetchLock.unlock();
+        }
+    }
+
+    private Optional<String> fetch(ResolvedVersion current) {
+        Optional<String> shared = cache.getVersion(LATEST);
+        if (shared.isPresent()) {
+            resolved = new ResolvedVersion(shared.get(), Instant.now().plus(refreshInterval));
+            return shared;
+        } else if (metadataURI == null) {
+            return Optional.empty();
+        }
+        try {
+            HttpResponse<String> response = HttpClient.newBuilder().connectTimeout(REQUEST_TIMEOUT)
+                    .followRedirects(HttpClient.Redirect.NORMAL).build()
+                    .send(HttpRequest.newBuilder(metadataURI).timeout(REQUEST_TIMEOUT).GET().build(),
+                            HttpResponse.BodyHandlers.ofString());
+            Matcher matcher = RELEASE_PATTERN.matcher(response.body());
+            if (response.statusCode() == HttpURLConnection.HTTP_OK && matcher.find()) {
+                resolved = new ResolvedVersion(matcher.group(1), Instant.now().plus(refreshInterval));
+                cache.putVersion(LATEST, resolved.version(), resolved.expires());
+                log.debug("Resolved {} archetype version: {}", LATEST, resolved.version());
+                return Optional.of(resolved.version());
+            }
+            log.debug("Unable to resolve {} archetype version, status {}", LATEST, response.statusCode());
+        } catch (IOException e) {
+            log.debug("Failed to fetch archetype metadata", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Optional.ofNullable(current).map(ResolvedVersion::version);
+        }
+        String stale = current == null ? null : current.version();
+        resolved = new ResolvedVersion(stale, Instant.now().plus(FAILURE_BACKOFF));
+        return Optional.ofNullable(stale);
+    }
+}
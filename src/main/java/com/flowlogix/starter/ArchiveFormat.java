@@ -0,0 +1,61 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.flowlogix.starter;
+
+import lombok.Getter;
+import org.apache.commons.compress.compressors.zstandard.ZstdUtils;
+import java.util.Arrays;
+import java.util.List;
+
+@Getter
+public enum ArchiveFormat {
+    /** Deflated zip, at the configured compression level. */
+    ZIP("zip", ".zip"),
+    /** Uncompressed zip, for clients where bandwidth is cheaper than CPU. */
+    STORED("stored", ".zip"),
+    /** Gzip compressed tarball. */
+    TAR_GZ("tar.gz", ".tar.gz"),
+    /** Zstandard compressed tarball, available when zstd-jni can load its native library. */
+    TAR_ZSTD("tar.zst", ".tar.zst");
+
+    private final String name;
+    private final String extension;
+
+    ArchiveFormat(String name, String extension) {
+        this.name = name;
+        this.extension = extension;
+    }
+
+    public boolean isAvailable() {
+        return this != TAR_ZSTD || ZstdUtils.isZstdCompressionAvailable();
+    }
+
+    public static List<ArchiveFormat> available() {
+        return Arrays.stream(values()).filter(ArchiveFormat::isAvailable).toList();
+    }
+
+    public static ArchiveFormat of(String name) {
+        if (name == null || name.isBlank()) {
+            return ZIP;
+        }
+        return Arrays.stream(values()).filter(format -> format.name.equalsIgnoreCase(name.trim()))
+                .filter(ArchiveFormat::isAvailable).findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Unsupported archive format: " + name));
+    }
+}
@@ -0,0 +1,489 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.flowlogix.starter;
+
+import com.flowlogix.starter.ArchetypeGenerator.ReturnValue;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import lombok.Getter;
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
+import org.apache.commons.compress.archivers.zip.ScatterZipOutputStream;
+import org.apache.commons.compress.archivers.zip.StreamCompressor;
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntryRequest;
+import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
+import org.apache.commons.compress.archivers.zip.ZipFile;
+import org.apache.commons.compress.archivers.zip.ZipUtil;
+import org.apache.commons.compress.compressors.gzip.GzipCompressorOutputStream;
+import org.apache.commons.compress.compressors.gzip.GzipParameters;
+import org.apache.commons.compress.compressors.zstandard.ZstdCompressorOutputStream;
+import org.apache.commons.compress.parallel.ScatterGatherBackingStore;
+import org.apache.commons.compress.utils.SeekableInMemoryByteChannel;
+import org.apache.commons.io.output.CountingOutputStream;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.zip.CRC32;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.function.Predicate.not;
+
+/**
+ * Writes generated projects as zip, stored zip, tar.gz or tar.zst archives,
+ * from either the project directory or an already built zip archive.
+ */
+@Slf4j
+@ApplicationScoped
+public class ArchiveWriter {
+    /**
+     * All entries carry the same timestamp, so that identical projects produce identical archives.
+     * 1980-01-01T00:00:02Z, which tar stores as is.
+     */
+    @SuppressWarnings("checkstyle:MagicNumber")
+    public static final long ENTRY_TIME = 315_532_802_000L;
+    @SuppressWarnings("checkstyle:MagicNumber")
+    static final int DEFAULT_CHUNK_SIZE = 64 * 1024;
+    @SuppressWarnings("checkstyle:MagicNumber")
+    private static final int PARALLEL_MIN_ENTRIES = 16;
+    @SuppressWarnings({"checkstyle:IllegalTokenText", "checkstyle:MagicNumber"})
+    private static final int EXECUTABLE_MODE = 0755;
+    @SuppressWarnings({"checkstyle:IllegalTokenText", "checkstyle:MagicNumber"})
+    private static final int OWNER_EXECUTE = 0100;
+    @SuppressWarnings("checkstyle:MagicNumber")
+    private static final int DEFAULT_ZSTD_LEVEL = 3;
+    /**
+     * 1980-01-01 00:00:02, the earliest DOS time that commons-compress does not treat as a time before 1980,
+     * which it would store in extra fields instead.
+     */
+    @SuppressWarnings("checkstyle:MagicNumber")
+    private static final long FIXED_DOS_TIME = (1 << 21) | (1 << 16) | 1;
+    @Getter
+    private final boolean directStreaming;
+    @Getter
+    private final int chunkSize;
+    @Getter
+    private final int compressionLevel;
+    private final boolean parallel;
+    @Getter
+    private final int zstdLevel;
+    private final Executor executor;
+
+    private interface Content {
+        InputStream open() throws IOException;
+    }
+
+    private record Item(String name, boolean executable, long size, Content content) { }
+
+    /**
+     * Single archive that projects are appended to one by one, each under its own directory.
+     */
+    public static final class Batch implements AutoCloseable {
+        private final CountingOutputStream counter;
+        private final ZipArchiveOutputStream zipOutputStream;
+        private final TarArchiveOutputStream tarOutputStream;
+        private final int level;
+        private final byte[] buffer;
+
+        private Batch(ArchiveWriter writer, ArchiveFormat format, OutputStream outputStream) throws IOException {
+            counter = new CountingOutputStream(outputStream);
+            level = format == ArchiveFormat.STORED ? 0 : writer.compressionLevel;
+            buffer = new byte[writer.chunkSize];
+            zipOutputStream = switch (format) {
+                case ZIP, STORED -> new ZipArchiveOutputStream(counter);
+                case TAR_GZ, TAR_ZSTD -> null;
+            };
+            tarOutputStream = switch (format) {
+                case ZIP, STORED -> null;
+                case TAR_GZ -> tar(new GzipCompressorOutputStream(counter, writer.gzipParameters()));
+                case TAR_ZSTD -> tar(new ZstdCompressorOutputStream(counter, writer.zstdLevel));
+            };
+            if (zipOutputStream != null) {
+                zipOutputStream.setLevel(level);
+            }
+        }
+
+        private static Batch open(ArchiveWriter writer, ArchiveFormat format, OutputStream outputStream)
+                throws IOException {
+            return new Batch(writer, format, outputStream);
+        }
+
+        public void add(String directory, ReturnValue result) throws IOException {
+            withItems(result, items -> {
+                for (Item item : items) {
+                    add(new Item(directory + "/" + item.name, item.executable, item.size, item.content));
+                }
+                return null;
+            });
+            flush();
+        }
+
+        public void add(String name, String text) throws IOException {
+            byte[] bytes = text.getBytes(UTF_8);
+            add(new Item(name, false, bytes.length, () -> new ByteArrayInputStream(bytes)));
+            flush();
+        }
+
+        public long getBytesWritten() {
+            return counter.getByteCount();
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (zipOutputStream != null) {
+                zipOutputStream.close();
+            } else {
+                tarOutputStream.close();
+            }
+        }
+
+        private void add(Item item) throws IOException {
+            if (zipOutputStream == null) {
+                writeTar(item, tarOutputStream, buffer);
+            } else if (level == 0) {
+                writeStored(item, zipOutputStream);
+            } else {
+                writeDeflated(item, zipOutputStream, buffer);
+            }
+        }
+
+        private void flush() throws IOException {
+            if (zipOutputStream != null) {
+                zipOutputStream.flush();
+            } else {
+                tarOutputStream.flush();
+            }
+        }
+    }
+
+    private interface ItemWriter<T> {
+        T write(List<Item> items) throws IOException;
+    }
+
+    private static final class MemoryBackingStore implements ScatterGatherBackingStore {
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        private static ScatterZipOutputStream scatterStream(int level) {
+            var store = new MemoryBackingStore();
+            return new ScatterZipOutputStream(store, StreamCompressor.create(level, store));
+        }
+
+        @Override
+        public InputStream getInputStream() {
+            return new ByteArrayInputStream(bytes.toByteArray());
+        }
+
+        @Override
+        public void writeOut(byte[] data, int offset, int length) {
+            bytes.write(data, offset, length);
+        }
+
+        @Override
+        public void closeForWriting() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    public ArchiveWriter() {
+        this(true, DEFAULT_CHUNK_SIZE, -1, true, DEFAULT_ZSTD_LEVEL, ForkJoinPool.commonPool());
+    }
+
+    @Inject
+    public ArchiveWriter(@ConfigProperty(name = "com.flowlogix.starter.direct-streaming", defaultValue = "true")
+                         boolean directStreaming,
+                         @ConfigProperty(name = "com.flowlogix.starter.stream-chunk-size", defaultValue = "65536")
+                         int chunkSize,
+                         @ConfigProperty(name = "com.flowlogix.starter.archive.compression-level", defaultValue = "-1")
+                         int compressionLevel,
+                         @ConfigProperty(name = "com.flowlogix.starter.archive.parallel", defaultValue = "true")
+                         boolean parallel,
+                         @ConfigProperty(name = "com.flowlogix.starter.archive.zstd-level", defaultValue = "3")
+                         int zstdLevel, AsyncExecutor executor) {
+        this(directStreaming, chunkSize, compressionLevel, parallel, zstdLevel, (Executor) executor);
+    }
+
+    ArchiveWriter(boolean directStreaming, int chunkSize, int compressionLevel, boolean parallel, int zstdLevel,
+                  Executor executor) {
+        this.directStreaming = directStreaming;
+        this.chunkSize = chunkSize;
+        this.compressionLevel = compressionLevel;
+        this.parallel = parallel;
+        this.zstdLevel = zstdLevel;
+        this.executor = executor;
+        log.debug("Direct streaming: {}, chunk size: {}, compression level: {}, parallel: {}, zstd level: {}",
+                directStreaming, chunkSize, compressionLevel, parallel, zstdLevel);
+    }
+
+    public long write(ReturnValue result, ArchiveFormat format, OutputStream outputStream, byte[] buffer)
+            throws IOException {
+        if (result.archive() != null && format == ArchiveFormat.ZIP) {
+            return copy(result.archive(), outputStream, buffer);
+        } else if (result.archive() == null && (result.status() != 0 || result.temporaryPath() == null)) {
+            return 0;
+        }
+        return withItems(result, items -> write(items, format, outputStream, buffer));
+    }
+
+    public Batch batch(ArchiveFormat format, OutputStream outputStream) throws IOException {
+        return Batch.open(this, format, outputStream);
+    }
+
+    public byte[] toBytes(Path sourceDirPath) throws IOException {
+        var bytes = new ByteArrayOutputStream();
+        writeDirectory(sourceDirPath, ArchiveFormat.ZIP, bytes, new byte[DEFAULT_CHUNK_SIZE]);
+        return bytes.toByteArray();
+    }
+
+    long writeDirectory(Path sourceDirPath, ArchiveFormat format, OutputStream outputStream, byte[] buffer)
+            throws IOException {
+        return withDirectoryItems(sourceDirPath, items -> write(items, format, outputStream, buffer));
+    }
+
+    private static <T> T withItems(ReturnValue result, ItemWriter<T> writer) throws IOException {
+        if (result.status() == 0 && result.temporaryPath() != null) {
+            return withDirectoryItems(result.temporaryPath(), writer);
+        } else if (result.archive() != null) {
+            return withArchiveItems(result.archive(), writer);
+        }
+        return writer.write(List.of());
+    }
+
+    private static <T> T withDirectoryItems(Path sourceDirPath, ItemWriter<T> writer) throws IOException {
+        try (var paths = Files.walk(sourceDirPath)) {
+            return writer.write(paths.filter(not(Files::isDirectory)).sorted()
+                    .map(path -> item(sourceDirPath, path)).toList());
+        }
+    }
+
+    private static <T> T withArchiveItems(ByteBuffer archive, ItemWriter<T> writer) throws IOException {
+        byte[] bytes = new byte[archive.remaining()];
+        archive.duplicate().get(bytes);
+        try (var zipFile = ZipFile.builder().setSeekableByteChannel(new SeekableInMemoryByteChannel(bytes)).get()) {
+            return writer.write(Collections.list(zipFile.getEntriesInPhysicalOrder()).stream()
+                    .filter(not(ZipArchiveEntry::isDirectory))
+                    .map(entry -> new Item(entry.getName(), (entry.getUnixMode() & OWNER_EXECUTE) != 0,
+                            entry.getSize(), () -> zipFile.getInputStream(entry))).toList());
+        }
+    }
+
+    private long write(List<Item> items, ArchiveFormat format, OutputStream outputStream, byte[] buffer)
+            throws IOException {
+        return switch (format) {
+            case ZIP -> writeZip(items, compressionLevel, outputStream, buffer);
+            case STORED -> writeZip(items, 0, outputStream, buffer);
+            case TAR_GZ -> {
+                var counter = new CountingOutputStream(outputStream);
+                writeTar(items, new GzipCompressorOutputStream(counter, gzipParameters()), buffer);
+                yield counter.getByteCount();
+            }
+            case TAR_ZSTD -> {
+                var counter = new CountingOutputStream(outputStream);
+                writeTar(items, new ZstdCompressorOutputStream(counter, zstdLevel), buffer);
+                yield counter.getByteCount();
+            }
+        };
+    }
+
+    private long writeZip(List<Item> items, int level, OutputStream outputStream, byte[] buffer)
+            throws IOException {
+        try (var zipOutputStream = new ZipArchiveOutputStream(outputStream)) {
+            zipOutputStream.setLevel(level);
+            if (level == 0) {
+                for (Item item : items) {
+                    writeStored(item, zipOutputStream);
+                }
+            } else if (parallel && items.size() >= 2 * PARALLEL_MIN_ENTRIES) {
+                writeParallel(items, level, zipOutputStream);
+            } else {
+                for (Item item : items) {
+                    writeDeflated(item, zipOutputStream, buffer);
+                }
+            }
+            zipOutputStream.finish();
+            return zipOutputStream.getBytesWritten();
+        }
+    }
+
+    /**
+     * Entries are compressed in parallel on the shared executor, but written in their original order,
+     * which keeps the archive identical from one run to the next.
+     * The writing thread compresses every entry that no other thread has started yet,
+     * so a busy executor slows the archive down, but never stalls it.
+     */
+    private void writeParallel(List<Item> items, int level, ZipArchiveOutputStream zipOutputStream)
+            throws IOException {
+        List<FutureTask<ScatterZipOutputStream>> compressed = items.stream()
+                .map(item -> new FutureTask<>(() -> compress(item, level))).toList();
+        try {
+            compressed.forEach(this::submit);
+            for (var entry : compressed) {
+                entry.run();
+                try (var scatter = entry.get()) {
+                    scatter.writeTo(zipOutputStream);
+                }
+            }
+        } catch (ExecutionException e) {
+            throw new IOException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException(e.getMessage());
+        } finally {
+            compressed.forEach(entry -> entry.cancel(false));
+        }
+    }
+
+    private void submit(Runnable task) {
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            log.debug("Compressing on the writing thread", e);
+        }
+    }
+
+    private GzipParameters gzipParameters() {
+        var parameters = new GzipParameters();
+        parameters.setCompressionLevel(compressionLevel);
+        return parameters;
+    }
+
+    private static void writeDeflated(Item item, ZipArchiveOutputStream zipOutputStream, byte[] buffer)
+            throws IOException {
+        zipOutputStream.putArchiveEntry(zipEntry(item, ZipArchiveEntry.DEFLATED));
+        copy(item, zipOutputStream, buffer);
+        zipOutputStream.closeArchiveEntry();
+    }
+
+    private static ScatterZipOutputStream compress(Item item, int level) throws IOException {
+        var scatter = MemoryBackingStore.scatterStream(level);
+        scatter.addArchiveEntry(ZipArchiveEntryRequest.createZipArchiveEntryRequest(
+                zipEntry(item, ZipArchiveEntry.DEFLATED), () -> open(item)));
+        return scatter;
+    }
+
+    private static void writeStored(Item item, ZipArchiveOutputStream zipOutputStream) throws IOException {
+        byte[] data;
+        try (var input = item.content.open()) {
+            data = input.readAllBytes();
+        }
+        var crc = new CRC32();
+        crc.update(data);
+        ZipArchiveEntry zipEntry = zipEntry(item, ZipArchiveEntry.STORED);
+        zipEntry.setSize(data.length);
+        zipEntry.setCrc(crc.getValue());
+        zipOutputStream.putArchiveEntry(zipEntry);
+        zipOutputStream.write(data);
+        zipOutputStream.closeArchiveEntry();
+    }
+
+    private static void writeTar(List<Item> items, OutputStream compressed, byte[] buffer) throws IOException {
+        try (var tarOutputStream = tar(compressed)) {
+            for (Item item : items) {
+                writeTar(item, tarOutputStream, buffer);
+            }
+            tarOutputStream.finish();
+        }
+    }
+
+    private static TarArchiveOutputStream tar(OutputStream compressed) {
+        var tarOutputStream = new TarArchiveOutputStream(compressed);
+        tarOutputStream.setLongFileMode(TarArchiveOutputStream.LONGFILE_POSIX);
+        return tarOutputStream;
+    }
+
+    private static void writeTar(Item item, TarArchiveOutputStream tarOutputStream, byte[] buffer)
+            throws IOException {
+        var tarEntry = new TarArchiveEntry(item.name);
+        tarEntry.setModTime(ENTRY_TIME);
+        tarEntry.setSize(item.size);
+        if (item.executable) {
+            tarEntry.setMode(TarArchiveEntry.DEFAULT_FILE_MODE | EXECUTABLE_MODE);
+        }
+        tarOutputStream.putArchiveEntry(tarEntry);
+        copy(item, tarOutputStream, buffer);
+        tarOutputStream.closeArchiveEntry();
+    }
+
+    /**
+     * Zip stores local time, so the fixed DOS timestamp is converted in the current time zone,
+     * which writes the same bytes whatever the zone is.
+     */
+    public static long zipEntryTime() {
+        return ZipUtil.dosToJavaTime(FIXED_DOS_TIME);
+    }
+
+    private static ZipArchiveEntry zipEntry(Item item, int method) {
+        var zipEntry = new ZipArchiveEntry(item.name);
+        zipEntry.setTime(zipEntryTime());
+        zipEntry.setMethod(method);
+        if (item.executable) {
+            zipEntry.setUnixMode(EXECUTABLE_MODE);
+        }
+        return zipEntry;
+    }
+
+    @SneakyThrows(IOException.class)
+    private static Item item(Path sourceDirPath, Path path) {
+        return new Item(sourceDirPath.relativize(path).toString(), Files.isExecutable(path), Files.size(path),
+                () -> Files.newInputStream(path));
+    }
+
+    @SneakyThrows(IOException.class)
+    private static InputStream open(Item item) {
+        return item.content.open();
+    }
+
+    private static void copy(Item item, OutputStream outputStream, byte[] buffer) throws IOException {
+        try (var input = item.content.open()) {
+            int bytesRead;
+            while ((bytesRead = input.read(buffer)) >= 0) {
+                outputStream.write(buffer, 0, bytesRead);
+            }
+        }
+    }
+
+    private static long copy(ByteBuffer archive, OutputStream outputStream, byte[] buffer) throws IOException {
+        try (outputStream) {
+            ByteBuffer source = archive.duplicate();
+            while (source.hasRemaining()) {
+                int length = Math.min(buffer.length, source.remaining());
+                source.get(buffer, 0, length);
+                outputStream.write(buffer, 0, length);
+            }
+            return archive.remaining();
+        }
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.flowlogix.starter;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import jakarta.enterprise.concurrent.ManagedExecutorService;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import lombok.extern.slf4j.Slf4j;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+@Slf4j
+@ApplicationScoped
+public class AsyncExecutor implements Executor {
+    @Resource
+    ManagedExecutorService managedExecutor;
+    private final boolean virtualThreads;
+    private ExecutorService virtualExecutor;
+
+    public AsyncExecutor() {
+        this(false);
+    }
+
+    @Inject
+    public AsyncExecutor(@ConfigProperty(name = "com.flowlogix.starter.virtual-threads", defaultValue = "true")
+                         boolean virtualThreads) {
+        this.virtualThreads = virtualThreads;
+    }
+
+    @PostConstruct
+    void start() {
+        if (virtualThreads) {
+            try {
+                virtualExecutor = Executors.newVirtualThreadPerTaskExecutor();
+            } catch (UnsupportedOperationException e) {
+                log.warn("Virtual threads are not available, using managed executor", e);
+            }
+        }
+        log.debug("Asynchronous downloads use virtual threads: {}", virtualExecutor != null);
+    }
+
+    @PreDestroy
+    void stop() {
+        if (virtualExecutor != null) {
+            virtualExecutor.shutdown();
+        }
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        (virtualExecutor != null ? virtualExecutor : managedExecutor).execute(task);
+    }
+
+    public Future<?> submit(Runnable task) {
+        return (virtualExecutor != null ? virtualExecutor : managedExecutor).submit(task);
+    }
+
+    public <T> CompletableFuture<T> supply(Supplier<T> supplier) {
+        return CompletableFuture.supplyAsync(supplier, this);
+    }
+}
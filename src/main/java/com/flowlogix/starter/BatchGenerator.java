@@ -0,0 +1,182 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.flowlogix.starter;
+
+import com.flowlogix.starter.ArchetypeGenerator.Parameter;
+import com.flowlogix.starter.ArchetypeGenerator.ReturnValue;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import lombok.extern.slf4j.Slf4j;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import static com.flowlogix.starter.ArchetypeGenerator.ARCHETYPE_VERSION;
+
+/**
+ * Generates many projects concurrently and streams them as a single archive,
+ * with one directory per project, in the order in which they finish.
+ */
+@Slf4j
+@ApplicationScoped
+public class BatchGenerator {
+    static final String FAILURE_FILE = "GENERATION-FAILED.txt";
+    private final ArchetypeGenerator generator;
+    private final ArchetypeVersionResolver versionResolver;
+    private final AdmissionController admission;
+    private final ArchiveWriter archiveWriter;
+    private final AsyncExecutor asyncExecutor;
+
+    public record Project(String directory, Parameter[] parameters) { }
+    private record Outcome(Project project, ReturnValue result, RuntimeException failure) { }
+
+    /**
+     * Once the client is gone, projects that are still finishing are closed right away.
+     */
+    private static final class Completions {
+        private final BlockingQueue<Outcome> completed = new LinkedBlockingQueue<>();
+        private boolean abandoned;
+
+        private synchronized boolean offer(Outcome outcome) {
+            return !abandoned && completed.add(outcome);
+        }
+
+        private synchronized List<Outcome> abandon() {
+            abandoned = true;
+            List<Outcome> outcomes = completed.stream().toList();
+            completed.clear();
+            return outcomes;
+        }
+    }
+
+    public BatchGenerator() {
+        this(new ArchetypeGenerator(), new ArchetypeVersionResolver(), new AdmissionController(),
+                new ArchiveWriter(), new AsyncExecutor());
+    }
+
+    @Inject
+    public BatchGenerator(ArchetypeGenerator generator, ArchetypeVersionResolver versionResolver,
+                          AdmissionController admission, ArchiveWriter archiveWriter, AsyncExecutor asyncExecutor) {
+        this.generator = generator;
+        this.versionResolver = versionResolver;
+        this.admission = admission;
+        this.archiveWriter = archiveWriter;
+        this.asyncExecutor = asyncExecutor;
+    }
+
+    /**
+     * @return number of bytes written
+     */
+    public long stream(List<Project> projects, ArchiveFormat format, OutputStream outputStream, String clientId)
+            throws IOException {
+        // a batch never takes more than its share of the admission limit, the rest waits here instead of
+        // filling up the admission queue
+        var slots = new Semaphore(admission.getMaxPerClient() > 0 ? admission.getMaxPerClient()
+                : Math.max(1, admission.getLimit()));
+        var completions = new Completions();
+        List<Future<?>> tasks = resolveVersions(projects).stream()
+                .<Future<?>>map(project -> asyncExecutor.submit(() -> {
+                    Outcome outcome = generate(project, slots, clientId);
+                    if (!completions.offer(outcome)) {
+                        close(outcome);
+                    }
+                })).toList();
+        int remaining = projects.size();
+        ArchiveWriter.Batch written;
+        try (var batch = archiveWriter.batch(format, outputStream)) {
+            while (remaining > 0) {
+                Outcome outcome = completions.completed.take();
+                --remaining;
+                write(batch, outcome);
+            }
+            written = batch;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException(e.getMessage());
+        } finally {
+            if (remaining > 0) {
+                log.debug("Batch abandoned with {} projects remaining", remaining);
+                tasks.forEach(task -> task.cancel(true));
+                completions.abandon().forEach(this::close);
+            }
+        }
+        // the archive is only complete once the batch is closed
+        return written.getBytesWritten();
+    }
+
+    /**
+     * {@code LATEST} is resolved once for the whole batch instead of by every Maven run.
+     */
+    private List<Project> resolveVersions(List<Project> projects) {
+        Map<String, Optional<String>> versions = new HashMap<>();
+        return projects.stream().map(project -> {
+            String requested = ArchetypeGenerator.extractParameters(project.parameters(), null).get(ARCHETYPE_VERSION);
+            return versions.computeIfAbsent(requested, versionResolver::resolve)
+                    .map(version -> new Project(project.directory(), ArchetypeGenerator.withParameter(
+                            project.parameters(), new Parameter(ARCHETYPE_VERSION, version))))
+                    .orElse(project);
+        }).toList();
+    }
+
+    private Outcome generate(Project project, Semaphore slots, String clientId) {
+        try {
+            slots.acquire();
+            try {
+                return new Outcome(project, generator.generateArchetype(project.parameters(), clientId), null);
+            } finally {
+                slots.release();
+            }
+        } catch (InterruptedException e) {
+            return new Outcome(project, null, new GenerationCancelledException("Batch cancelled", e));
+        } catch (RuntimeException e) {
+            return new Outcome(project, null, e);
+        }
+    }
+
+    private void write(ArchiveWriter.Batch batch, Outcome outcome) throws IOException {
+        String directory = outcome.project().directory();
+        if (outcome.failure() != null) {
+            log.debug("Batch project {} failed", directory, outcome.failure());
+            batch.add(directory + "/" + FAILURE_FILE, String.valueOf(outcome.failure().getMessage()));
+            return;
+        }
+        try {
+            if (outcome.result().status() == 0) {
+                batch.add(directory, outcome.result());
+            } else {
+                batch.add(directory + "/" + FAILURE_FILE, outcome.result().output());
+            }
+        } finally {
+            close(outcome);
+        }
+    }
+
+    private void close(Outcome outcome) {
+        if (outcome.result() != null) {
+            outcome.result().close();
+        }
+    }
+}
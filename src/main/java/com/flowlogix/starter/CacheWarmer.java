@@ -0,0 +1,173 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.flowlogix.starter;
+
+import com.flowlogix.starter.ArchetypeGenerator.Parameter;
+import com.flowlogix.starter.cache.ArchiveCache;
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import jakarta.enterprise.concurrent.ManagedScheduledExecutorService;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.Startup;
+import jakarta.inject.Inject;
+import lombok.extern.slf4j.Slf4j;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.SequencedSet;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Keeps the archive cache warm for the configurations offered by the UI,
+ * so that neither a deployment nor a new archetype release sends users down the cold path.
+ * Generation runs one at a time and only while no user generation is running or waiting.
+ * Disabled by default, as it runs Maven for every configuration, set {@code com.flowlogix.starter.warmup.enabled}
+ * to enable it.
+ */
+@Slf4j
+@ApplicationScoped
+public class CacheWarmer {
+    static final String CLIENT_ID = "cache-warmer";
+    static final List<String> FLAGS = List.of("useShiro", "useOmniFaces", "usePrimeFaces", "useLazyModel");
+    @SuppressWarnings("checkstyle:MagicNumber")
+    private static final long IDLE_POLL_MILLIS = 500;
+    @Resource
+    ManagedScheduledExecutorService scheduler;
+    private final ArchetypeGenerator generator;
+    private final AdmissionController admission;
+    private final ArchetypeVersionResolver versionResolver;
+    private final boolean enabled;
+    private final List<Parameter[]> configurations;
+    private final long intervalMinutes;
+    private volatile boolean stopped;
+    private volatile String warmedVersion;
+
+    public CacheWarmer() {
+        this(new ArchetypeGenerator(), new AdmissionController(), new ArchetypeVersionResolver(),
+                new ArchiveCache(), false, List.of(), 0, 0);
+    }
+
+    @Inject
+    public CacheWarmer(ArchetypeGenerator generator, AdmissionController admission,
+                       ArchetypeVersionResolver versionResolver, ArchiveCache cache,
+                       @ConfigProperty(name = "com.flowlogix.starter.warmup.enabled", defaultValue = "false")
+                       boolean enabled,
+                       @ConfigProperty(name = "com.flowlogix.starter.warmup.base-types",
+                               defaultValue = "payara,infra,base") List<String> baseTypes,
+                       @ConfigProperty(name = "com.flowlogix.starter.warmup.max-configurations",
+                               defaultValue = "16") int maxConfigurations,
+                       @ConfigProperty(name = "com.flowlogix.starter.warmup.interval-minutes", defaultValue = "5")
+                       long intervalMinutes) {
+        this.generator = generator;
+        this.admission = admission;
+        this.versionResolver = versionResolver;
+        this.enabled = enabled && cache.isEnabled() && intervalMinutes > 0;
+        this.configurations = configurations(baseTypes, maxConfigurations);
+        this.intervalMinutes = intervalMinutes;
+    }
+
+    void start(@Observes Startup startup) {
+        if (enabled) {
+            log.info("Warming up {} configurations every {} minutes", configurations.size(), intervalMinutes);
+            scheduler.scheduleWithFixedDelay(this::warmUp, 0, intervalMinutes, TimeUnit.MINUTES);
+        }
+    }
+
+    @PreDestroy
+    void stop() {
+        stopped = true;
+    }
+
+    /**
+     * Regenerates every configuration that is missing from the cache or would expire before the next run,
+     * which includes all of them after the {@code LATEST} archetype version changes.
+     */
+    void warmUp() {
+        Optional<String> latest = versionResolver.latest();
+        if (latest.isPresent() && !latest.get().equals(warmedVersion)) {
+            log.info("Warming up archive cache for archetype version {}", latest.get());
+        }
+        Duration margin = Duration.ofMinutes(2 * intervalMinutes);
+        int refreshed = 0;
+        try {
+            for (Parameter[] configuration : configurations) {
+                if (!awaitIdle()) {
+                    return;
+                }
+                if (!generator.refresh(configuration, margin, CLIENT_ID)) {
+                    log.debug("Unable to warm up configuration, skipping the rest");
+                    return;
+                }
+                ++refreshed;
+            }
+            warmedVersion = latest.orElse(null);
+        } catch (RuntimeException e) {
+            log.warn("Cache warm-up failed", e);
+        } finally {
+            log.debug("Cache warm-up checked {} configurations", refreshed);
+        }
+    }
+
+    /**
+     * Ordered by likelihood: the UI and REST defaults for every base type first,
+     * then the remaining combinations of the {@code use*} flags.
+     */
+    static List<Parameter[]> configurations(List<String> baseTypes, int maxConfigurations) {
+        int combinations = 1 << FLAGS.size();
+        SequencedSet<Integer> flagOrder = new LinkedHashSet<>(List.of(combinations - 1, 0));
+        IntStream.range(0, combinations).forEach(flagOrder::add);
+        List<Parameter[]> configurations = new ArrayList<>();
+        for (int flags : flagOrder) {
+            for (String baseType : baseTypes.stream().map(String::trim).filter(type -> !type.isEmpty()).toList()) {
+                if (maxConfigurations > 0 && configurations.size() >= maxConfigurations) {
+                    return configurations;
+                }
+                configurations.add(configuration(baseType, flags));
+            }
+        }
+        return configurations;
+    }
+
+    private static Parameter[] configuration(String baseType, int flags) {
+        return Stream.concat(Stream.of(new Parameter("baseType", baseType)),
+                IntStream.range(0, FLAGS.size()).mapToObj(bit -> new Parameter(FLAGS.get(bit),
+                        Boolean.toString((flags & (1 << bit)) != 0)))).toArray(Parameter[]::new);
+    }
+
+    /**
+     * Warm-up is low priority, it only generates when user requests aren't running or waiting.
+     */
+    private boolean awaitIdle() {
+        try {
+            while (!stopped && (admission.getInFlight() > 0 || admission.getQueueDepth() > 0)) {
+                Thread.sleep(IDLE_POLL_MILLIS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+        return !stopped;
+    }
+}
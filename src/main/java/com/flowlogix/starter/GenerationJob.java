@@ -0,0 +1,161 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.flowlogix.starter;
+
+import lombok.Getter;
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+/**
+ * Generation that runs in the background, its archive is kept
+ * in memory until it's fetched by id or the job expires.
+ */
+public class GenerationJob {
+    @Getter
+    private final String id;
+    @Getter
+    private final String fileName;
+    @Getter
+    private final ArchiveFormat format;
+    private final List<Consumer<Status>> listeners = new ArrayList<>();
+    private State state = State.QUEUED;
+    private String message;
+    private String output;
+    private ByteBuffer archive;
+    private Instant finished;
+    private Future<?> task;
+
+    public enum State {
+        /** Waiting for an executor thread */
+        QUEUED,
+        /** Resolving the archetype version */
+        RESOLVING,
+        /** Waiting for admission and running the archetype */
+        GENERATING,
+        /** Building the archive */
+        ZIPPING,
+        /** The archive is ready to be fetched */
+        READY,
+        /** Generation failed */
+        FAILED,
+        /** Cancelled before the archive was ready */
+        CANCELLED;
+
+        public boolean isFinished() {
+            return compareTo(READY) >= 0;
+        }
+    }
+
+    public record Status(String id, State state, String message) { }
+
+    GenerationJob(String id, String fileName, ArchiveFormat format) {
+        this.id = id;
+        this.fileName = fileName;
+        this.format = format;
+    }
+
+    public synchronized Status getStatus() {
+        return new Status(id, state, message);
+    }
+
+    /**
+     * @return the archive, once the job is {@link State#READY ready}
+     */
+    public synchronized Optional<ByteBuffer> getArchive() {
+        return Optional.ofNullable(archive).map(ByteBuffer::duplicate);
+    }
+
+    /**
+     * @return the generator output of a failed generation
+     */
+    public synchronized Optional<String> getOutput() {
+        return Optional.ofNullable(output);
+    }
+
+    /**
+     * The listener gets the current status right away, then every change
+     * until the job is finished.
+     */
+    public synchronized void subscribe(Consumer<Status> listener) {
+        listener.accept(getStatus());
+        if (!state.isFinished()) {
+            listeners.add(listener);
+        }
+    }
+
+    public synchronized void unsubscribe(Consumer<Status> listener) {
+        listeners.remove(listener);
+    }
+
+    synchronized void start(Future<?> task) {
+        this.task = task;
+    }
+
+    void cancel() {
+        Future<?> running;
+        synchronized (this) {
+            running = task;
+        }
+        if (running != null) {
+            running.cancel(true);
+        }
+        finish(State.CANCELLED, "Generation cancelled", null);
+    }
+
+    /**
+     * @return false if the job is already finished
+     */
+    synchronized boolean update(State newState) {
+        if (state.isFinished()) {
+            return false;
+        }
+        state = newState;
+        List.copyOf(listeners).forEach(listener -> listener.accept(getStatus()));
+        return true;
+    }
+
+    synchronized boolean complete(ByteBuffer archive) {
+        if (state.isFinished()) {
+            return false;
+        }
+        this.archive = archive;
+        return finish(State.READY, null, null);
+    }
+
+    synchronized boolean finish(State finalState, String message, String output) {
+        if (state.isFinished()) {
+            return false;
+        }
+        this.message = message;
+        this.output = output;
+        finished = Instant.now();
+        update(finalState);
+        listeners.clear();
+        return true;
+    }
+
+    synchronized boolean isExpired(Instant before) {
+        return finished != null && finished.isBefore(before);
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.flowlogix.starter;
+
+import com.flowlogix.starter.ArchetypeGenerator.Parameter;
+import com.flowlogix.starter.ArchetypeGenerator.ReturnValue;
+import com.flowlogix.starter.GenerationJob.State;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import lombok.extern.slf4j.Slf4j;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import static com.flowlogix.starter.ArchetypeGenerator.ARCHETYPE_VERSION;
+
+/**
+ * Runs generations in the background, so that neither the UI nor REST clients
+ * hold a request open while the archetype is generated.
+ * Finished jobs are kept for the retention period, then forgotten.
+ */
+@Slf4j
+@ApplicationScoped
+public class GenerationJobs {
+    private static final Duration RETRY_AFTER = Duration.ofSeconds(5);
+    private final ArchetypeGenerator generator;
+    private final ArchetypeVersionResolver versionResolver;
+    private final AsyncExecutor asyncExecutor;
+    private final Duration retention;
+    private final int maxJobs;
+    private final Map<String, GenerationJob> jobs = new ConcurrentHashMap<>();
+
+    public GenerationJobs() {
+        this(new ArchetypeGenerator(), new ArchetypeVersionResolver(), new AsyncExecutor(), 0, 0);
+    }
+
+    @Inject
+    public GenerationJobs(ArchetypeGenerator generator, ArchetypeVersionResolver versionResolver,
+                          AsyncExecutor asyncExecutor,
+                          @ConfigProperty(name = "com.flowlogix.starter.jobs.retention-seconds", defaultValue = "300")
+                          long retentionSeconds,
+                          @ConfigProperty(name = "com.flowlogix.starter.jobs.max", defaultValue = "200") int maxJobs) {
+        this.generator = generator;
+        this.versionResolver = versionResolver;
+        this.asyncExecutor = asyncExecutor;
+        this.retention = Duration.ofSeconds(retentionSeconds);
+        this.maxJobs = maxJobs;
+    }
+
+    /**
+     * @throws AdmissionRejectedException if too many jobs are running or waiting to be fetched
+     */
+    public GenerationJob submit(Parameter[] parameters, ArchiveFormat format, String fileName, String clientId) {
+        expire();
+        if (jobs.size() >= maxJobs) {
+            throw new AdmissionRejectedException("Too many generation jobs", RETRY_AFTER);
+        }
+        var job = new GenerationJob(UUID.randomUUID().toString(), fileName, format);
+        jobs.put(job.getId(), job);
+        job.start(asyncExecutor.submit(() -> run(job, parameters, clientId)));
+        log.debug("Generation job {} submitted", job.getId());
+        return job;
+    }
+
+    public Optional<GenerationJob> get(String id) {
+        expire();
+        return Optional.ofNullable(jobs.get(id));
+    }
+
+    /**
+     * @return false if there is no such job
+     */
+    public boolean cancel(String id) {
+        GenerationJob job = jobs.remove(id);
+        if (job != null) {
+            job.cancel();
+        }
+        return job != null;
+    }
+
+    public int size() {
+        return jobs.size();
+    }
+
+    @PreDestroy
+    void stop() {
+        jobs.keySet().forEach(this::cancel);
+    }
+
+    private void run(GenerationJob job, Parameter[] parameters, String clientId) {
+        try {
+            if (!job.update(State.RESOLVING)) {
+                return;
+            }
+            Parameter[] resolved = versionResolver.resolve(ArchetypeGenerator.extractParameters(parameters, null)
+                            .get(ARCHETYPE_VERSION))
+                    .map(version -> ArchetypeGenerator.withParameter(parameters,
+                            new Parameter(ARCHETYPE_VERSION, version)))
+                    .orElse(parameters);
+            if (!job.update(State.GENERATING)) {
+                return;
+            }
+            ReturnValue result = generator.generateArchetype(resolved, clientId);
+            if (result.status() != 0) {
+                result.close();
+                job.finish(State.FAILED, "Project generation failed", result.output());
+            } else if (job.update(State.ZIPPING)) {
+                job.complete(generator.buildArchive(result, job.getFormat()));
+            } else {
+                result.close();
+            }
+        } catch (GenerationCancelledException e) {
+            log.debug("Generation job {} cancelled", job.getId(), e);
+            job.finish(State.CANCELLED, "Generation cancelled", null);
+        } catch (AdmissionRejectedException e) {
+            job.finish(State.FAILED, "The generator is busy right now, please try again in %d seconds"
+                    .formatted(e.getRetryAfter().toSeconds()), null);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Generation job {} failed", job.getId(), e);
+            job.finish(State.FAILED, "Project generation failed", String.valueOf(e.getMessage()));
+        }
+    }
+
+    private void expire() {
+        Instant before = Instant.now().minus(retention);
+        jobs.values().removeIf(job -> job.isExpired(before));
+    }
+}
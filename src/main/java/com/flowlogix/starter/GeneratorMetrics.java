@@ -0,0 +1,135 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.flowlogix.starter;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.metrics.Metadata;
+import org.eclipse.microprofile.metrics.MetricRegistry;
+import org.eclipse.microprofile.metrics.MetricUnits;
+import org.eclipse.microprofile.metrics.Tag;
+import java.time.Duration;
+import java.util.Map;
+
+@ApplicationScoped
+public class GeneratorMetrics {
+    private static final String UNKNOWN = "unknown";
+    private static final Metadata ARCHIVE_SIZE = Metadata.builder().withName("generator.archive.size")
+            .withDescription("Size of generated project archives").withUnit(MetricUnits.BYTES).build();
+    private static final Metadata STREAMED_SIZE = Metadata.builder().withName("generator.stream.size")
+            .withDescription("Bytes streamed to clients per download").withUnit(MetricUnits.BYTES).build();
+    private final MetricRegistry registry;
+    private final AdmissionController admission;
+    private final WorkspaceManager workspaces;
+
+    public GeneratorMetrics() {
+        this(null, null, null);
+    }
+
+    @Inject
+    public GeneratorMetrics(MetricRegistry registry, AdmissionController admission, WorkspaceManager workspaces) {
+        this.registry = registry;
+        this.admission = admission;
+        this.workspaces = workspaces;
+    }
+
+    @PostConstruct
+    void registerGauges() {
+        if (registry != null) {
+            registry.gauge("generator.inflight", admission, AdmissionController::getInFlight);
+            registry.gauge("generator.queue.depth", admission, AdmissionController::getQueueDepth);
+            registry.gauge("generator.limit", admission, AdmissionController::getLimit);
+            registry.gauge("generator.rejected", admission, AdmissionController::getRejected);
+            registry.gauge("generator.workspace.pending", workspaces, WorkspaceManager::getPending);
+            registry.gauge("generator.workspace.reclaimed", workspaces, WorkspaceManager::getReclaimed);
+            registry.gauge(Metadata.builder().withName("generator.workspace.reclaimed.bytes")
+                    .withUnit(MetricUnits.BYTES).build(), workspaces, WorkspaceManager::getReclaimedBytes);
+            registry.gauge("generator.workspace.orphans", workspaces, WorkspaceManager::getOrphans);
+            registry.gauge(Metadata.builder().withName("generator.workspace.disk.free")
+                    .withUnit(MetricUnits.BYTES).build(), workspaces, WorkspaceManager::getUsableSpace);
+        }
+    }
+
+    public void permitWait(Map<String, String> parameters, long nanos) {
+        if (registry != null) {
+            registry.timer("generator.permit.wait", tags(parameters)).update(Duration.ofNanos(nanos));
+        }
+    }
+
+    public void mavenRun(Map<String, String> parameters, long nanos, int status) {
+        if (registry != null) {
+            registry.timer("generator.maven.duration", tags(parameters)).update(Duration.ofNanos(nanos));
+            registry.counter("generator.maven.runs", tags(parameters, new Tag("status", Integer.toString(status))))
+                    .inc();
+        }
+    }
+
+    public void coalesced(Map<String, String> parameters) {
+        if (registry != null) {
+            registry.counter("generator.coalesced", tags(parameters)).inc();
+        }
+    }
+
+    public void zipBuilt(Map<String, String> parameters, long nanos, long bytes) {
+        if (registry != null) {
+            registry.timer("generator.zip.duration", tags(parameters)).update(Duration.ofNanos(nanos));
+            registry.histogram(ARCHIVE_SIZE, tags(parameters)).update(bytes);
+        }
+    }
+
+    public void streamed(Map<String, String> parameters, long nanos, long bytes) {
+        if (registry != null) {
+            registry.timer("generator.stream.duration", tags(parameters)).update(Duration.ofNanos(nanos));
+            registry.histogram(STREAMED_SIZE, tags(parameters)).update(bytes);
+        }
+    }
+
+    public void clientAborted(Map<String, String> parameters) {
+        if (registry != null) {
+            registry.counter("generator.client.aborts", tags(parameters)).inc();
+        }
+    }
+
+    public void cleanup(long nanos) {
+        if (registry != null) {
+            registry.timer("generator.cleanup.duration").update(Duration.ofNanos(nanos));
+        }
+    }
+
+    public void cleanupBatch(long nanos) {
+        if (registry != null) {
+            registry.timer("generator.cleanup.batch.duration").update(Duration.ofNanos(nanos));
+        }
+    }
+
+    public void cacheLookup(Map<String, String> parameters, boolean hit) {
+        if (registry != null) {
+            registry.counter(hit ? "generator.cache.hits" : "generator.cache.misses", tags(parameters)).inc();
+        }
+    }
+
+    private static Tag[] tags(Map<String, String> parameters, Tag... additional) {
+        Tag[] tags = new Tag[additional.length + 2];
+        tags[0] = new Tag("baseType", parameters.getOrDefault("baseType", UNKNOWN));
+        tags[1] = new Tag("archetypeVersion", parameters.getOrDefault(ArchetypeGenerator.ARCHETYPE_VERSION, UNKNOWN));
+        System.arraycopy(additional, 0, tags, 2, additional.length);
+        return tags;
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.flowlogix.starter;
+
+import com.flowlogix.starter.ArchetypeGenerator.ReturnValue;
+import com.flowlogix.starter.cache.ArchiveCache;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Identical concurrent requests share a single generation,
+ * each of them receives the same result and closes it once.
+ */
+final class RequestCoalescer {
+    private final Map<String, Flight> inFlight = new ConcurrentHashMap<>();
+    private final GeneratorMetrics metrics;
+
+    private static final class Flight {
+        private final CompletableFuture<ReturnValue> result = new CompletableFuture<>();
+        private int consumers = 1;
+    }
+
+    RequestCoalescer(GeneratorMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    ReturnValue coalesce(Map<String, String> parameters, Supplier<ReturnValue> generator) {
+        String key = ArchiveCache.key(parameters);
+        var flight = new Flight();
+        Flight current = inFlight.compute(key, (ignored, existing) -> {
+            if (existing == null) {
+                return flight;
+            }
+            ++existing.consumers;
+            return existing;
+        });
+        if (current != flight) {
+            metrics.coalesced(parameters);
+            return join(current, parameters, generator);
+        }
+        try {
+            ReturnValue result = generator.get();
+            inFlight.remove(key, flight);
+            result = flight.consumers > 1 ? result.withConsumers(flight.consumers) : result;
+            flight.result.complete(result);
+            return result;
+        } catch (RuntimeException e) {
+            inFlight.remove(key, flight);
+            flight.result.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private ReturnValue join(Flight flight, Map<String, String> parameters, Supplier<ReturnValue> generator) {
+        try {
+            return flight.result.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof GenerationCancelledException) {
+                // the request that ran the generation went away, this one is still interested
+                return coalesce(parameters, generator);
+            }
+            throw e.getCause() instanceof RuntimeException cause ? cause : new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            // release this consumer's share of the result once it is available
+            flight.result.thenAccept(ReturnValue::close);
+            Thread.currentThread().interrupt();
+            throw new GenerationCancelledException("Cancelled waiting for a coalesced generation", e);
+        }
+    }
+}
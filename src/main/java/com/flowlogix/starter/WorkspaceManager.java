@@ -0,0 +1,361 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.flowlogix.starter;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import jakarta.enterprise.concurrent.ManagedScheduledExecutorService;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.Startup;
+import jakarta.inject.Inject;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Creates generation workspaces and reclaims them in the background,
+ * including ones orphaned by abandoned downloads or a previous crash.
+ * Each instance keeps its workspaces in a directory of its own, locked for as long as the instance runs,
+ * so instances that share the workspace root never delete each other's workspaces.
+ */
+@Slf4j
+@ApplicationScoped
+public class WorkspaceManager {
+    static final String PREFIX = "starter-generator-project-";
+    static final String INSTANCE_PREFIX = "starter-generator-instance-";
+    static final String LOCK = ".lock";
+    private static final String MEMORY = "memory";
+    private static final Path SHARED_MEMORY = Path.of("/dev/shm");
+    @SuppressWarnings("checkstyle:MagicNumber")
+    private static final long SWEEP_SECONDS = 60;
+    @Resource
+    ManagedScheduledExecutorService scheduler;
+    @Getter
+    private final Path root;
+    private final Duration maxAge;
+    private final long reapIntervalSeconds;
+    private final GeneratorMetrics metrics;
+    private final BlockingQueue<Path> pending = new LinkedBlockingQueue<>();
+    private final LongAdder reclaimed = new LongAdder();
+    private final LongAdder reclaimedBytes = new LongAdder();
+    private final LongAdder orphans = new LongAdder();
+    private volatile boolean reaping;
+    private Path instanceRoot;
+    private FileChannel instanceLock;
+
+    public WorkspaceManager() {
+        this(Optional.empty(), 0, 0);
+    }
+
+    public WorkspaceManager(Optional<String> directory, long maxAgeSeconds, long reapIntervalSeconds) {
+        this(directory, maxAgeSeconds, reapIntervalSeconds, new GeneratorMetrics());
+    }
+
+    @Inject
+    public WorkspaceManager(@ConfigProperty(name = "com.flowlogix.starter.workspace-directory")
+                            Optional<String> directory,
+                            @ConfigProperty(name = "com.flowlogix.starter.workspace.max-age-seconds",
+                                    defaultValue = "900") long maxAgeSeconds,
+                            @ConfigProperty(name = "com.flowlogix.starter.workspace.reap-interval-seconds",
+                                    defaultValue = "5") long reapIntervalSeconds,
+                            GeneratorMetrics metrics) {
+        this.metrics = metrics;
+        root = directory.map(String::trim).filter(value -> !value.isEmpty())
+                .map(value -> toRoot(value, SHARED_MEMORY)).orElseGet(WorkspaceManager::temporaryDirectory);
+        this.maxAge = Duration.ofSeconds(maxAgeSeconds);
+        this.reapIntervalSeconds = reapIntervalSeconds;
+        log.debug("Workspace directory: {}", root);
+    }
+
+    /**
+     * Instances that are no longer running leave their directories unlocked.
+     * Workspaces directly under the root predate instance directories, and are deleted once they
+     * are older than the maximum age.
+     */
+    void start(@Observes Startup startup) {
+        sweepInstances(Instant.now().minusSeconds(SWEEP_SECONDS));
+        sweepShared(Instant.now().minus(maxAge));
+        if (reapIntervalSeconds > 0) {
+            reaping = true;
+            scheduler.scheduleWithFixedDelay(this::reap, reapIntervalSeconds, reapIntervalSeconds, TimeUnit.SECONDS);
+            scheduler.scheduleWithFixedDelay(() -> {
+                sweep(Instant.now().minus(maxAge));
+                sweepInstances(Instant.now().minusSeconds(SWEEP_SECONDS));
+            }, SWEEP_SECONDS, SWEEP_SECONDS, TimeUnit.SECONDS);
+        }
+    }
+
+    @PreDestroy
+    synchronized void stop() {
+        reaping = false;
+        reap();
+        if (instanceRoot != null) {
+            deleteDirectory(instanceRoot);
+            try {
+                instanceLock.close();
+            } catch (IOException e) {
+                log.debug("Unable to unlock workspace directory {}", instanceRoot, e);
+            }
+            instanceRoot = null;
+        }
+    }
+
+    public Path create() throws IOException {
+        Path path = Files.createTempDirectory(getInstanceRoot(), PREFIX);
+        if (!path.resolve(".mvn").toFile().mkdirs()) {
+            throw new IOException("Unable to create directory");
+        }
+        log.debug("Created temporary project directory: {}", path);
+        return path;
+    }
+
+    /**
+     * Hands the workspace over to the background reaper,
+     * or deletes it right away when the reaper isn't running.
+     */
+    public void release(Path path) throws IOException {
+        if (reaping) {
+            pending.add(path);
+        } else {
+            timedDelete(path);
+        }
+    }
+
+    /**
+     * @return number of bytes freed
+     */
+    public static long delete(Path path) throws IOException {
+        var deleter = new Deleter();
+        Files.walkFileTree(path, deleter);
+        return deleter.bytes;
+    }
+
+    public int getPending() {
+        return pending.size();
+    }
+
+    public long getReclaimed() {
+        return reclaimed.sum();
+    }
+
+    public long getReclaimedBytes() {
+        return reclaimedBytes.sum();
+    }
+
+    public long getOrphans() {
+        return orphans.sum();
+    }
+
+    public long getUsableSpace() {
+        try {
+            return Files.getFileStore(root).getUsableSpace();
+        } catch (IOException e) {
+            log.debug("Unable to determine usable space of {}", root, e);
+            return -1;
+        }
+    }
+
+    void reap() {
+        List<Path> batch = new ArrayList<>();
+        pending.drainTo(batch);
+        if (!batch.isEmpty()) {
+            long start = System.nanoTime();
+            batch.forEach(this::reclaim);
+            metrics.cleanupBatch(System.nanoTime() - start);
+            log.debug("Reclaimed {} workspaces", batch.size());
+        }
+    }
+
+    /**
+     * Deletes this instance's workspaces created before the cutoff, which nothing should be using anymore.
+     */
+    synchronized void sweep(Instant cutoff) {
+        if (instanceRoot != null) {
+            sweep(instanceRoot, cutoff);
+        }
+    }
+
+    /**
+     * Deletes the directories of instances that are gone, those created before the cutoff that nobody holds
+     * the lock of. The cutoff leaves a starting instance the time to take its lock.
+     */
+    void sweepInstances(Instant cutoff) {
+        if (!Files.isDirectory(root)) {
+            return;
+        }
+        try (var paths = Files.list(root)) {
+            paths.filter(path -> path.getFileName().toString().startsWith(INSTANCE_PREFIX))
+                    .filter(path -> !path.equals(instanceRoot))
+                    .filter(path -> isCreatedBefore(path, cutoff)).forEach(this::reclaimInstance);
+        } catch (IOException e) {
+            log.warn("Unable to sweep workspace directory {}", root, e);
+        }
+    }
+
+    /**
+     * Deletes workspaces created directly under the root before the cutoff,
+     * left behind by versions that did not keep them in an instance directory.
+     */
+    void sweepShared(Instant cutoff) {
+        if (Files.isDirectory(root)) {
+            sweep(root, cutoff);
+        }
+    }
+
+    private void sweep(Path directory, Instant cutoff) {
+        try (var paths = Files.list(directory)) {
+            paths.filter(path -> path.getFileName().toString().startsWith(PREFIX))
+                    .filter(path -> isCreatedBefore(path, cutoff)).forEach(path -> {
+                        log.info("Deleting orphaned workspace {}", path);
+                        orphans.increment();
+                        reclaim(path);
+                    });
+        } catch (IOException e) {
+            log.warn("Unable to sweep workspace directory {}", directory, e);
+        }
+    }
+
+    private synchronized Path getInstanceRoot() throws IOException {
+        if (instanceRoot == null) {
+            Path directory = Files.createTempDirectory(Files.createDirectories(root), INSTANCE_PREFIX);
+            instanceLock = FileChannel.open(directory.resolve(LOCK), StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE);
+            instanceLock.lock();
+            instanceRoot = directory;
+            log.debug("Instance workspace directory: {}", instanceRoot);
+        }
+        return instanceRoot;
+    }
+
+    private void reclaimInstance(Path directory) {
+        Path lockFile = directory.resolve(LOCK);
+        if (!Files.exists(lockFile)) {
+            reclaimOrphans(directory);
+            return;
+        }
+        try (var channel = FileChannel.open(lockFile, StandardOpenOption.WRITE);
+             var lock = channel.tryLock()) {
+            if (lock != null) {
+                reclaimOrphans(directory);
+            }
+        } catch (OverlappingFileLockException e) {
+            log.debug("Workspace directory {} belongs to this JVM", directory);
+        } catch (IOException e) {
+            log.debug("Unable to lock workspace directory {}", directory, e);
+        }
+    }
+
+    private void reclaimOrphans(Path directory) {
+        try (var paths = Files.list(directory)) {
+            orphans.add(paths.filter(path -> path.getFileName().toString().startsWith(PREFIX)).count());
+        } catch (IOException e) {
+            log.debug("Unable to list workspace directory {}", directory, e);
+        }
+        log.info("Deleting workspace directory {} of an instance that is no longer running", directory);
+        deleteDirectory(directory);
+    }
+
+    private void deleteDirectory(Path directory) {
+        try {
+            reclaimedBytes.add(timedDelete(directory));
+        } catch (IOException e) {
+            log.debug("Unable to delete workspace directory {}", directory, e);
+        }
+    }
+
+    private void reclaim(Path path) {
+        try {
+            reclaimedBytes.add(timedDelete(path));
+            reclaimed.increment();
+        } catch (IOException e) {
+            log.debug("Unable to delete workspace {}", path, e);
+        }
+    }
+
+    private long timedDelete(Path path) throws IOException {
+        long start = System.nanoTime();
+        try {
+            return delete(path);
+        } finally {
+            metrics.cleanup(System.nanoTime() - start);
+        }
+    }
+
+    private static boolean isCreatedBefore(Path path, Instant cutoff) {
+        try {
+            return Files.readAttributes(path, BasicFileAttributes.class).creationTime().toInstant().isBefore(cutoff);
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    static Path toRoot(String directory, Path sharedMemory) {
+        if (!MEMORY.equalsIgnoreCase(directory)) {
+            return Path.of(directory);
+        }
+        if (Files.isDirectory(sharedMemory) && Files.isWritable(sharedMemory)) {
+            return sharedMemory;
+        }
+        log.warn("Memory-backed workspace {} is not available, using temporary directory", sharedMemory);
+        return temporaryDirectory();
+    }
+
+    private static Path temporaryDirectory() {
+        return Path.of(System.getProperty("java.io.tmpdir"));
+    }
+
+    private static final class Deleter extends SimpleFileVisitor<Path> {
+        private long bytes;
+
+        @Override
+        public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) throws IOException {
+            bytes += attributes.size();
+            Files.delete(file);
+            return FileVisitResult.CONTINUE;
+        }
+
+        @Override
+        public FileVisitResult postVisitDirectory(Path directory, IOException exception) throws IOException {
+            if (exception != null) {
+                throw exception;
+            }
+            Files.delete(directory);
+            return FileVisitResult.CONTINUE;
+        }
+    }
+}
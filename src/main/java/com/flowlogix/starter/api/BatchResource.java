@@ -0,0 +1,98 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.flowlogix.starter.api;
+
+import com.flowlogix.starter.ArchiveFormat;
+import com.flowlogix.starter.BatchGenerator;
+import com.flowlogix.starter.BatchGenerator.Project;
+import jakarta.inject.Inject;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.ws.rs.BadRequestException;
+import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.DefaultValue;
+import jakarta.ws.rs.MatrixParam;
+import jakarta.ws.rs.POST;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.StreamingOutput;
+import lombok.extern.slf4j.Slf4j;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+@Path("batch")
+@Slf4j
+public class BatchResource {
+    private static final Pattern DIRECTORY = Pattern.compile("[A-Za-z0-9_][A-Za-z0-9_.-]*");
+    @Inject
+    BatchGenerator batchGenerator;
+    @Inject
+    @ConfigProperty(name = "com.flowlogix.starter.batch.max-projects", defaultValue = "50")
+    int maxProjects;
+    @Context
+    HttpServletRequest request;
+
+    @POST
+    @Consumes(MediaType.APPLICATION_JSON)
+    @Produces(MediaType.APPLICATION_OCTET_STREAM)
+    public Response downloadBatch(@MatrixParam("format") @DefaultValue("zip") String format,
+                                  List<DownloadParameters> parameters) {
+        ArchiveFormat archiveFormat = DownloadParameters.toFormat(format);
+        List<Project> projects = toProjects(parameters);
+        String clientId = request.getRemoteAddr();
+        StreamingOutput stream = outputStream -> {
+            try {
+                batchGenerator.stream(projects, archiveFormat, outputStream, clientId);
+            } catch (IOException e) {
+                log.debug("Failed to stream batch", e);
+            }
+        };
+        return Response.ok(stream)
+                .header("Content-Disposition", "attachment; filename=\"starters%s\""
+                        .formatted(archiveFormat.getExtension()))
+                .build();
+    }
+
+    private List<Project> toProjects(List<DownloadParameters> parameters) {
+        if (parameters == null || parameters.isEmpty()) {
+            throw new BadRequestException("No projects requested");
+        }
+        if (parameters.size() > maxProjects) {
+            throw new BadRequestException("At most %d projects can be generated at once".formatted(maxProjects));
+        }
+        Set<String> directories = new HashSet<>();
+        for (var project : parameters) {
+            String artifactId = project.getArtifactId();
+            if (artifactId == null || !DIRECTORY.matcher(artifactId).matches()) {
+                throw new BadRequestException("Invalid artifact: %s".formatted(artifactId));
+            }
+            if (!directories.add(artifactId)) {
+                throw new BadRequestException("Duplicate artifact: %s".formatted(artifactId));
+            }
+        }
+        return parameters.stream().map(project -> new Project(project.getArtifactId(), project.toParameters()))
+                .toList();
+    }
+}
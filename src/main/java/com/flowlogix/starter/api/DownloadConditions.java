@@ -0,0 +1,122 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.flowlogix.starter.api;
+
+import jakarta.ws.rs.WebApplicationException;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.Response;
+import java.util.Arrays;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Conditional and range request headers, captured on the request thread
+ * so that they remain available to asynchronous downloads.
+ */
+record DownloadConditions(String ifNoneMatch, String range, String ifRange) {
+    private static final Pattern BYTE_RANGE = Pattern.compile("\\s*bytes\\s*=\\s*(\\d*)\\s*-\\s*(\\d*)\\s*");
+    private static final String WEAK = "W/";
+
+    record ByteRange(long start, long end) {
+        long length() {
+            return end - start + 1;
+        }
+
+        String contentRange(long total) {
+            return "bytes %d-%d/%d".formatted(start, end, total);
+        }
+    }
+
+    static DownloadConditions of(HttpHeaders headers) {
+        return new DownloadConditions(headers.getHeaderString(HttpHeaders.IF_NONE_MATCH),
+                headers.getHeaderString("Range"), headers.getHeaderString("If-Range"));
+    }
+
+    /**
+     * Weak comparison, as required for {@code If-None-Match}.
+     */
+    boolean isNotModified(String tag) {
+        return ifNoneMatch != null && Arrays.stream(ifNoneMatch.split(",")).map(String::trim)
+                .map(value -> value.startsWith(WEAK) ? value.substring(WEAK.length()) : value)
+                .anyMatch(value -> value.equals("*") || value.equals(quoted(tag)));
+    }
+
+    /**
+     * Only a single range is supported, anything else, including a range
+     * of a different version of the archive, gets the whole archive.
+     *
+     * @return the requested range, or {@code null} for the whole archive
+     * @throws WebApplicationException 416 if the range starts past the end of the archive,
+     * or past the largest offset of an in-memory archive
+     */
+    ByteRange byteRange(String tag, long length) {
+        if (range == null || !matchesIfRange(tag)) {
+            return null;
+        }
+        Matcher matcher = BYTE_RANGE.matcher(range);
+        if (!matcher.matches() || matcher.group(1).isEmpty() && matcher.group(2).isEmpty()) {
+            return null;
+        }
+        if (matcher.group(1).isEmpty()) {
+            return suffix(offset(matcher.group(2)), length);
+        }
+        long start = offset(matcher.group(1));
+        long end = matcher.group(2).isEmpty() ? length - 1 : Math.min(offset(matcher.group(2)), length - 1);
+        if (start >= length) {
+            return unsatisfiable(length);
+        }
+        return start <= end ? inMemory(new ByteRange(start, end), length) : null;
+    }
+
+    /**
+     * Offsets too large for a long are past the end of any archive.
+     */
+    private static long offset(String digits) {
+        try {
+            return Long.parseLong(digits);
+        } catch (NumberFormatException e) {
+            return Long.MAX_VALUE;
+        }
+    }
+
+    private boolean matchesIfRange(String tag) {
+        return ifRange == null || tag != null && ifRange.trim().equals(quoted(tag));
+    }
+
+    private static ByteRange suffix(long suffix, long length) {
+        return suffix == 0 ? unsatisfiable(length)
+                : inMemory(new ByteRange(Math.max(0, length - suffix), length - 1), length);
+    }
+
+    /**
+     * Archives are sliced in memory, which cannot address past {@link Integer#MAX_VALUE}.
+     */
+    private static ByteRange inMemory(ByteRange range, long length) {
+        return range.end() > Integer.MAX_VALUE ? unsatisfiable(length) : range;
+    }
+
+    private static ByteRange unsatisfiable(long length) {
+        throw new WebApplicationException(Response.status(Response.Status.REQUESTED_RANGE_NOT_SATISFIABLE)
+                .header("Content-Range", "bytes */%d".formatted(length)).build());
+    }
+
+    private static String quoted(String tag) {
+        return "\"%s\"".formatted(tag);
+    }
+}
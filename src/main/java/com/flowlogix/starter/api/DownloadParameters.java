@@ -0,0 +1,90 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.flowlogix.starter.api;
+
+import com.flowlogix.starter.ArchetypeGenerator.Parameter;
+import com.flowlogix.starter.ArchiveFormat;
+import jakarta.json.bind.annotation.JsonbProperty;
+import jakarta.ws.rs.BadRequestException;
+import jakarta.ws.rs.DefaultValue;
+import jakarta.ws.rs.MatrixParam;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Matrix parameters of a download, also the JSON form of a batch entry.
+ */
+@Getter @Setter
+public class DownloadParameters {
+    @MatrixParam("group") @DefaultValue("com.example") @JsonbProperty("group")
+    String groupId = "com.example";
+    @MatrixParam("artifact") @DefaultValue("starter") @JsonbProperty("artifact")
+    String artifactId = "starter";
+    @MatrixParam("projectName")
+    String projectName;
+    @MatrixParam("package") @JsonbProperty("package")
+    String packageName;
+    @MatrixParam("baseType")
+    String baseType;
+    @MatrixParam("packagingType")
+    String packagingType;
+    @MatrixParam("version")
+    String version;
+    @MatrixParam("archetypeVersion")
+    String archetypeVersion;
+    @MatrixParam("useShiro") @DefaultValue("false")
+    boolean useShiro;
+    @MatrixParam("useOmniFaces") @DefaultValue("false")
+    boolean useOmniFaces;
+    @MatrixParam("usePrimeFaces") @DefaultValue("false")
+    boolean usePrimeFaces;
+    @MatrixParam("useLazyModel") @DefaultValue("false")
+    boolean useLazyModel;
+    @MatrixParam("format") @DefaultValue("zip")
+    String format = "zip";
+
+    public ArchiveFormat toFormat() {
+        return toFormat(format);
+    }
+
+    static ArchiveFormat toFormat(String format) {
+        try {
+            return ArchiveFormat.of(format);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException(e.getMessage(), e);
+        }
+    }
+
+    public Parameter[] toParameters() {
+        return new Parameter[] {
+                new Parameter("groupId", groupId),
+                new Parameter("artifactId", artifactId),
+                new Parameter("projectName", projectName),
+                new Parameter("package", packageName),
+                new Parameter("baseType", baseType),
+                new Parameter("packagingType", packagingType),
+                new Parameter("version", version),
+                new Parameter("archetypeVersion", archetypeVersion),
+                new Parameter("useShiro", Boolean.toString(useShiro)),
+                new Parameter("useOmniFaces", Boolean.toString(useOmniFaces)),
+                new Parameter("usePrimeFaces", Boolean.toString(usePrimeFaces)),
+                new Parameter("useLazyModel", Boolean.toString(useLazyModel)),
+        };
+    }
+}
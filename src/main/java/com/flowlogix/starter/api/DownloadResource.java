@@ -19,68 +19,131 @@
 package com.flowlogix.starter.api;
 
 import com.flowlogix.starter.ArchetypeGenerator;
+import com.flowlogix.starter.ArchiveFormat;
+import com.flowlogix.starter.AsyncExecutor;
 import com.flowlogix.starter.ArchetypeGenerator.Parameter;
 import com.flowlogix.starter.ArchetypeGenerator.ReturnValue;
 import jakarta.annotation.Resource;
 import jakarta.enterprise.concurrent.ManagedExecutorService;
 import jakarta.inject.Inject;
-import jakarta.ws.rs.DefaultValue;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.ws.rs.BeanParam;
 import jakarta.ws.rs.GET;
-import jakarta.ws.rs.MatrixParam;
 import jakarta.ws.rs.Path;
 import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.container.AsyncResponse;
+import jakarta.ws.rs.container.ConnectionCallback;
+import jakarta.ws.rs.container.Suspended;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.EntityTag;
+import jakarta.ws.rs.core.HttpHeaders;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
 import jakarta.ws.rs.core.StreamingOutput;
 import lombok.extern.slf4j.Slf4j;
+import java.nio.ByteBuffer;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
 
 @Path("/")
 @Slf4j
 public class DownloadResource {
     @Inject
     ArchetypeGenerator generator;
+    @Inject
+    AsyncExecutor asyncExecutor;
     @Resource
     ManagedExecutorService executorService;
+    @Context
+    HttpServletRequest request;
+    @Context
+    HttpHeaders headers;
 
     @GET
     @Produces({MediaType.APPLICATION_OCTET_STREAM, MediaType.TEXT_PLAIN})
-    @SuppressWarnings("checkstyle:ParameterNumber")
-    public Response downloadFile(@MatrixParam("group") @DefaultValue("com.example") String groupId,
-                                 @MatrixParam("artifact") @DefaultValue("starter") String artifactId,
-                                 @MatrixParam("projectName") String projectName,
-                                 @MatrixParam("package") String packageName,
-                                 @MatrixParam("baseType") String baseType,
-                                 @MatrixParam("packagingType") String packagingType,
-                                 @MatrixParam("version") String version,
-                                 @MatrixParam("archetypeVersion") String archetypeVersion,
-                                 @MatrixParam("useShiro") @DefaultValue("false") boolean useShiro,
-                                 @MatrixParam("useOmniFaces") @DefaultValue("false") boolean useOmniFaces,
-                                 @MatrixParam("usePrimeFaces") @DefaultValue("false") boolean usePrimeFaces,
-                                 @MatrixParam("useLazyModel") @DefaultValue("false") boolean useLazyModel) {
-        ReturnValue result = generator.generateArchetype(new Parameter[] {
-                new Parameter("groupId", groupId),
-                new Parameter("artifactId", artifactId),
-                new Parameter("projectName", projectName),
-                new Parameter("package", packageName),
-                new Parameter("baseType", baseType),
-                new Parameter("packagingType", packagingType),
-                new Parameter("version", version),
-                new Parameter("archetypeVersion", archetypeVersion),
-                new Parameter("useShiro", Boolean.toString(useShiro)),
-                new Parameter("useOmniFaces", Boolean.toString(useOmniFaces)),
-                new Parameter("usePrimeFaces", Boolean.toString(usePrimeFaces)),
-                new Parameter("useLazyModel", Boolean.toString(useLazyModel)),
+    public Response downloadFile(@BeanParam DownloadParameters parameters) {
+        return download(parameters, request.getRemoteAddr(), DownloadConditions.of(headers));
+    }
+
+    @GET
+    @Path("async")
+    @Produces({MediaType.APPLICATION_OCTET_STREAM, MediaType.TEXT_PLAIN})
+    public void downloadFileAsync(@BeanParam DownloadParameters parameters, @Suspended AsyncResponse response) {
+        String clientId = request.getRemoteAddr();
+        var conditions = DownloadConditions.of(headers);
+        // registered before submitting, so that a client that goes away right away still cancels the generation
+        var generation = new CompletableFuture<Future<?>>();
+        response.register((ConnectionCallback) disconnected -> {
+            log.debug("Client disconnected, cancelling generation");
+            generation.thenAccept(future -> future.cancel(true));
+        });
+        response.setTimeoutHandler(timedOut -> {
+            log.debug("Download timed out, cancelling generation");
+            // resumed first, the cancelled generation resumes with its exception too late to replace the response
+            timedOut.resume(Response.status(Response.Status.SERVICE_UNAVAILABLE).build());
+            generation.thenAccept(future -> future.cancel(true));
         });
+        generation.complete(asyncExecutor.submit(() -> {
+            try {
+                response.resume(download(parameters, clientId, conditions));
+            } catch (RuntimeException e) {
+                response.resume(e);
+            }
+        }));
+    }
 
+    private Response download(DownloadParameters parameters, String clientId, DownloadConditions conditions) {
+        ArchiveFormat format = parameters.toFormat();
+        Parameter[] pinned = generator.pinVersion(parameters.toParameters());
+        String tag = generator.entityTag(pinned, format).orElse(null);
+        if (tag != null && conditions.isNotModified(tag)) {
+            return Response.notModified(new EntityTag(tag)).build();
+        }
+        ReturnValue result = generator.generateArchetype(pinned, clientId);
         if (result.status() != 0) {
             result.close();
             return Response.serverError().type(MediaType.TEXT_PLAIN)
                     .entity(result.output()).build();
         }
 
-        StreamingOutput stream = outputStream -> generator.createZipStream(result, outputStream, executorService);
-        return Response.ok(stream)
-                .header("Content-Disposition", "attachment; filename=\"%s.zip\"".formatted(artifactId))
+        Response.ResponseBuilder response;
+        Optional<ByteBuffer> archive = generator.materialize(result, format);
+        if (archive.isPresent()) {
+            response = ranged(result, archive.get(), tag, conditions);
+        } else {
+            StreamingOutput stream = generator.isDirectStreaming()
+                    ? outputStream -> generator.streamZip(result, format, outputStream)
+                    : outputStream -> generator.createZipStream(result, format, outputStream, executorService);
+            response = Response.ok(stream);
+        }
+        return response.tag(tag == null ? null : new EntityTag(tag))
+                .header("Content-Disposition", "attachment; filename=\"%s%s\""
+                        .formatted(parameters.getArtifactId(), format.getExtension()))
                 .build();
     }
+
+    private Response.ResponseBuilder ranged(ReturnValue result, ByteBuffer archive, String tag,
+                                            DownloadConditions conditions) {
+        long length = archive.remaining();
+        DownloadConditions.ByteRange range;
+        try {
+            range = conditions.byteRange(tag, length);
+        } catch (RuntimeException e) {
+            result.close();
+            throw e;
+        }
+        Response.ResponseBuilder response;
+        if (range == null) {
+            response = Response.ok((StreamingOutput) outputStream -> generator.streamArchive(result, archive,
+                    outputStream)).header(HttpHeaders.CONTENT_LENGTH, length);
+        } else {
+            ByteBuffer part = archive.slice(Math.toIntExact(range.start()), Math.toIntExact(range.length()));
+            response = Response.status(Response.Status.PARTIAL_CONTENT)
+                    .entity((StreamingOutput) outputStream -> generator.streamArchive(result, part, outputStream))
+                    .header("Content-Range", range.contentRange(length))
+                    .header(HttpHeaders.CONTENT_LENGTH, range.length());
+        }
+        return response.header("Accept-Ranges", "bytes");
+    }
 }
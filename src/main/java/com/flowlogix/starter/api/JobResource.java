@@ -0,0 +1,137 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.flowlogix.starter.api;
+
+import com.flowlogix.starter.GenerationJob;
+import com.flowlogix.starter.GenerationJob.Status;
+import com.flowlogix.starter.GenerationJobs;
+import jakarta.inject.Inject;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.ws.rs.BeanParam;
+import jakarta.ws.rs.DELETE;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.NotFoundException;
+import jakarta.ws.rs.POST;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.PathParam;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.StreamingOutput;
+import jakarta.ws.rs.core.UriInfo;
+import jakarta.ws.rs.sse.Sse;
+import jakarta.ws.rs.sse.SseEventSink;
+import lombok.extern.slf4j.Slf4j;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.util.function.Consumer;
+
+/**
+ * Generation jobs: {@code POST} with the same matrix parameters as a download,
+ * then follow the job's progress and fetch its archive by id.
+ */
+@Path("jobs")
+@Slf4j
+public class JobResource {
+    @Inject
+    GenerationJobs jobs;
+    @Context
+    HttpServletRequest request;
+
+    /**
+     * Pushes every state change as a {@code status} event and closes the stream once the job is finished.
+     */
+    private record Events(GenerationJob job, SseEventSink sink, Sse sse) implements Consumer<Status> {
+        @Override
+        public void accept(Status status) {
+            sink.send(sse.newEventBuilder().name("status").id(status.state().name())
+                            .mediaType(MediaType.APPLICATION_JSON_TYPE).data(Status.class, status).build())
+                    .whenComplete((ignored, failure) -> {
+                        if (failure != null || status.state().isFinished()) {
+                            log.debug("Closing events of generation job {}", job.getId(), failure);
+                            job.unsubscribe(this);
+                            sink.close();
+                        }
+                    });
+        }
+    }
+
+    @POST
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response submit(@BeanParam DownloadParameters parameters, @Context UriInfo uriInfo) {
+        GenerationJob job = jobs.submit(parameters.toParameters(), parameters.toFormat(),
+                parameters.getArtifactId() + parameters.toFormat().getExtension(), request.getRemoteAddr());
+        return Response.accepted(job.getStatus())
+                .location(uriInfo.getBaseUriBuilder().path(JobResource.class).path(job.getId()).build())
+                .build();
+    }
+
+    @GET
+    @Path("{id}")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Status status(@PathParam("id") String id) {
+        return find(id).getStatus();
+    }
+
+    @GET
+    @Path("{id}/events")
+    @Produces(MediaType.SERVER_SENT_EVENTS)
+    public void events(@PathParam("id") String id, @Context SseEventSink sink, @Context Sse sse) {
+        GenerationJob job = find(id);
+        job.subscribe(new Events(job, sink, sse));
+    }
+
+    @GET
+    @Path("{id}/archive")
+    @Produces({MediaType.APPLICATION_OCTET_STREAM, MediaType.TEXT_PLAIN})
+    public Response archive(@PathParam("id") String id) {
+        GenerationJob job = find(id);
+        Status status = job.getStatus();
+        return switch (status.state()) {
+            case READY -> {
+                ByteBuffer archive = job.getArchive().orElseThrow();
+                yield Response.ok((StreamingOutput) outputStream -> Channels.newChannel(outputStream).write(archive))
+                        .header(HttpHeaders.CONTENT_LENGTH, archive.remaining())
+                        .header("Content-Disposition", "attachment; filename=\"%s\"".formatted(job.getFileName()))
+                        .build();
+            }
+            case FAILED -> Response.serverError().type(MediaType.TEXT_PLAIN)
+                    .entity(job.getOutput().orElse(status.message())).build();
+            case CANCELLED -> Response.status(Response.Status.GONE).type(MediaType.TEXT_PLAIN)
+                    .entity(status.message()).build();
+            default -> Response.status(Response.Status.CONFLICT).type(MediaType.TEXT_PLAIN)
+                    .entity("Generation job is %s".formatted(status.state().name().toLowerCase())).build();
+        };
+    }
+
+    @DELETE
+    @Path("{id}")
+    public Response cancel(@PathParam("id") String id) {
+        if (!jobs.cancel(id)) {
+            throw new NotFoundException();
+        }
+        return Response.noContent().build();
+    }
+
+    private GenerationJob find(String id) {
+        return jobs.get(id).orElseThrow(NotFoundException::new);
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.flowlogix.starter.cache;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import lombok.Getter;
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import javax.cache.CacheException;
+import javax.cache.Caching;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+
+@Slf4j
+@ApplicationScoped
+public class ArchiveCache {
+    @SuppressWarnings("checkstyle:MagicNumber")
+    private static final long MEGABYTE = 1024 * 1024;
+    @SuppressWarnings("checkstyle:MagicNumber")
+    private static final long KILOBYTE = 1024;
+    private static final String LOCAL = "local";
+    private static final String JCACHE = "jcache";
+    @Getter
+    private final boolean enabled;
+    private final ArchiveStore store;
+
+    public ArchiveCache() {
+        this(false, 0, 0);
+    }
+
+    public ArchiveCache(boolean enabled, long maxMegabytes, long ttlMinutes) {
+        this(enabled, maxMegabytes, ttlMinutes, LOCAL, "", 0);
+    }
+
+    @Inject
+    public ArchiveCache(@ConfigProperty(name = "com.flowlogix.starter.cache.enabled", defaultValue = "true")
+                        boolean enabled,
+                        @ConfigProperty(name = "com.flowlogix.starter.cache.max-megabytes", defaultValue = "128")
+                        long maxMegabytes,
+                        @ConfigProperty(name = "com.flowlogix.starter.cache.ttl-minutes", defaultValue = "60")
+                        long ttlMinutes,
+                        @ConfigProperty(name = "com.flowlogix.starter.cache.store", defaultValue = LOCAL)
+                        String storeType,
+                        @ConfigProperty(name = "com.flowlogix.starter.cache.jcache.name",
+                                defaultValue = "starter-generator-archives") String cacheName,
+                        @ConfigProperty(name = "com.flowlogix.starter.cache.jcache.max-entry-kilobytes",
+                                defaultValue = "1024") long maxEntryKilobytes) {
+        this.enabled = enabled && maxMegabytes > 0;
+        var timeToLive = Duration.ofMinutes(ttlMinutes);
+        var local = new LocalArchiveStore(maxMegabytes * MEGABYTE, timeToLive);
+        this.store = this.enabled && JCACHE.equalsIgnoreCase(storeType.trim())
+                ? shared(cacheName, local, maxEntryKilobytes * KILOBYTE, timeToLive) : local;
+        log.debug("Archive cache enabled: {}, store: {}, size: {}MB, TTL: {}",
+                this.enabled, store.getClass().getSimpleName(), maxMegabytes, timeToLive);
+    }
+
+    @SneakyThrows(NoSuchAlgorithmException.class)
+    public static String key(Map<String, String> parameters) {
+        var digest = MessageDigest.getInstance("SHA-256");
+        new TreeMap<>(parameters).forEach((key, value) -> digest.update("%s=%s\n".formatted(key, value)
+                .getBytes(StandardCharsets.UTF_8)));
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    public Optional<ByteBuffer> get(String key) {
+        return enabled ? store.get(key) : Optional.empty();
+    }
+
+    /**
+     * @return true if the archive is cached and stays valid for at least {@code margin}
+     */
+    public boolean isFresh(String key, Duration margin) {
+        return enabled && store.isFresh(key, margin);
+    }
+
+    public ByteBuffer put(String key, byte[] archive) {
+        return enabled ? store.put(key, archive) : LocalArchiveStore.buffer(archive);
+    }
+
+    public long size() {
+        return store.size();
+    }
+
+    public void clear() {
+        store.clear();
+    }
+
+    public Optional<String> getVersion(String key) {
+        return enabled ? store.getVersion(key) : Optional.empty();
+    }
+
+    public void putVersion(String key, String version, Instant expires) {
+        if (enabled) {
+            store.putVersion(key, version, expires);
+        }
+    }
+
+    private static ArchiveStore shared(String cacheName, LocalArchiveStore local, long maxEntryBytes,
+                                       Duration timeToLive) {
+        try {
+            return new JCacheArchiveStore(Caching.getCachingProvider().getCacheManager(), cacheName, local,
+                    maxEntryBytes, timeToLive);
+        } catch (CacheException | IllegalStateException e) {
+            log.warn("Shared archive cache is not available, using local cache", e);
+            return local;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.flowlogix.starter.cache;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Storage behind {@link ArchiveCache}, either local to this node or shared by the cluster.
+ */
+interface ArchiveStore {
+    Optional<ByteBuffer> get(String key);
+
+    ByteBuffer put(String key, byte[] archive);
+
+    boolean isFresh(String key, Duration margin);
+
+    long size();
+
+    void clear();
+
+    /**
+     * Versions are only shared between nodes, every node resolves them on its own otherwise.
+     */
+    default Optional<String> getVersion(String key) {
+        return Optional.empty();
+    }
+
+    default void putVersion(String key, String version, Instant expires) {
+    }
+}
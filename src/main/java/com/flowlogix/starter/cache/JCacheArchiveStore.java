@@ -0,0 +1,154 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.flowlogix.starter.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import javax.cache.Cache;
+import javax.cache.CacheException;
+import javax.cache.CacheManager;
+import javax.cache.configuration.MutableConfiguration;
+import javax.cache.expiry.CreatedExpiryPolicy;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Shares archives and resolved versions between cluster nodes through a JCache (JSR-107) provider,
+ * such as the one built into Payara. Hits are kept in a local tier, so that repeated downloads
+ * on the same node are served from direct buffers without going to the cluster.
+ * <p>
+ * Shared values carry their expiry, which keeps the local tier from outliving the shared entry.
+ * Entry count and memory limits of the shared caches are configured in the provider,
+ * caches that don't exist yet are created with expiry only.
+ */
+@Slf4j
+final class JCacheArchiveStore implements ArchiveStore {
+    private final Cache<String, byte[]> archives;
+    private final Cache<String, String> versions;
+    private final LocalArchiveStore local;
+    private final long maxEntryBytes;
+    private final Duration timeToLive;
+
+    JCacheArchiveStore(CacheManager cacheManager, String name, LocalArchiveStore local, long maxEntryBytes,
+                       Duration timeToLive) {
+        this.archives = cache(cacheManager, name, byte[].class, timeToLive);
+        this.versions = cache(cacheManager, name + "-versions", String.class, timeToLive);
+        this.local = local;
+        this.maxEntryBytes = maxEntryBytes;
+        this.timeToLive = timeToLive;
+    }
+
+    @Override
+    public Optional<ByteBuffer> get(String key) {
+        Optional<ByteBuffer> cached = local.get(key);
+        if (cached.isPresent()) {
+            return cached;
+        }
+        byte[] shared;
+        try {
+            shared = archives.get(key);
+        } catch (CacheException e) {
+            log.debug("Shared archive cache unavailable", e);
+            return Optional.empty();
+        }
+        if (shared == null) {
+            return Optional.empty();
+        }
+        var value = ByteBuffer.wrap(shared);
+        Instant expires = Instant.ofEpochMilli(value.getLong());
+        if (Instant.now().isAfter(expires)) {
+            return Optional.empty();
+        }
+        byte[] archive = new byte[value.remaining()];
+        value.get(archive);
+        return Optional.of(local.put(key, archive, expires));
+    }
+
+    @Override
+    public ByteBuffer put(String key, byte[] archive) {
+        Instant expires = Instant.now().plus(timeToLive);
+        if (archive.length <= maxEntryBytes) {
+            try {
+                archives.put(key, ByteBuffer.allocate(Long.BYTES + archive.length)
+                        .putLong(expires.toEpochMilli()).put(archive).array());
+            } catch (CacheException e) {
+                log.debug("Shared archive cache unavailable", e);
+            }
+        }
+        return local.put(key, archive, expires);
+    }
+
+    @Override
+    public boolean isFresh(String key, Duration margin) {
+        return get(key).isPresent() && local.isFresh(key, margin);
+    }
+
+    @Override
+    public long size() {
+        return local.size();
+    }
+
+    @Override
+    public void clear() {
+        local.clear();
+        archives.clear();
+        versions.clear();
+    }
+
+    @Override
+    public Optional<String> getVersion(String key) {
+        try {
+            return Optional.ofNullable(versions.get(key)).map(value -> value.split(" ", 2))
+                    .filter(value -> Instant.now().isBefore(Instant.ofEpochMilli(Long.parseLong(value[0]))))
+                    .map(value -> value[1]);
+        } catch (CacheException e) {
+            log.debug("Shared version cache unavailable", e);
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public void putVersion(String key, String version, Instant expires) {
+        try {
+            versions.put(key, "%d %s".formatted(expires.toEpochMilli(), version));
+        } catch (CacheException e) {
+            log.debug("Shared version cache unavailable", e);
+        }
+    }
+
+    private static <V> Cache<String, V> cache(CacheManager cacheManager, String name, Class<V> type,
+                                              Duration timeToLive) {
+        Cache<String, V> cache = cacheManager.getCache(name, String.class, type);
+        if (cache != null) {
+            return cache;
+        }
+        try {
+            return cacheManager.createCache(name, new MutableConfiguration<String, V>()
+                    .setTypes(String.class, type).setStoreByValue(true)
+                    .setExpiryPolicyFactory(CreatedExpiryPolicy.factoryOf(new javax.cache.expiry.Duration(
+                            TimeUnit.MILLISECONDS, timeToLive.toMillis()))));
+        } catch (CacheException e) {
+            // another node created it first
+            log.debug("Unable to create cache {}", name, e);
+            return cacheManager.getCache(name, String.class, type);
+        }
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.flowlogix.starter.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * In-memory least recently used store, bounded by the total size of the archives,
+ * which are kept in direct buffers, off the Java heap.
+ */
+@Slf4j
+final class LocalArchiveStore implements ArchiveStore {
+    private final long maxBytes;
+    private final Duration timeToLive;
+    private final Map<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long currentBytes;
+
+    private record Entry(ByteBuffer archive, Instant expires) { }
+
+    LocalArchiveStore(long maxBytes, Duration timeToLive) {
+        this.maxBytes = maxBytes;
+        this.timeToLive = timeToLive;
+    }
+
+    static ByteBuffer buffer(byte[] archive) {
+        return ByteBuffer.allocateDirect(archive.length).put(archive).flip().asReadOnlyBuffer();
+    }
+
+    @Override
+    public synchronized Optional<ByteBuffer> get(String key) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return Optional.empty();
+        }
+        if (Instant.now().isAfter(entry.expires())) {
+            remove(key);
+            return Optional.empty();
+        }
+        return Optional.of(entry.archive().duplicate());
+    }
+
+    @Override
+    public ByteBuffer put(String key, byte[] archive) {
+        return put(key, archive, Instant.now().plus(timeToLive));
+    }
+
+    ByteBuffer put(String key, byte[] archive, Instant expires) {
+        ByteBuffer buffer = buffer(archive);
+        if (archive.length > maxBytes) {
+            return buffer;
+        }
+        synchronized (this) {
+            remove(key);
+            evict(maxBytes - archive.length);
+            entries.put(key, new Entry(buffer, expires));
+            currentBytes += archive.length;
+            log.debug("Cached archive {}, {} bytes, total {} bytes", key, archive.length, currentBytes);
+        }
+        return buffer.duplicate();
+    }
+
+    @Override
+    public synchronized boolean isFresh(String key, Duration margin) {
+        Entry entry = entries.get(key);
+        return entry != null && Instant.now().plus(margin).isBefore(entry.expires());
+    }
+
+    @Override
+    public synchronized long size() {
+        return currentBytes;
+    }
+
+    @Override
+    public synchronized void clear() {
+        entries.clear();
+        currentBytes = 0;
+    }
+
+    private void evict(long targetBytes) {
+        Instant now = Instant.now();
+        for (Iterator<Entry> iterator = entries.values().iterator(); iterator.hasNext();) {
+            Entry entry = iterator.next();
+            if (currentBytes > targetBytes || now.isAfter(entry.expires())) {
+                currentBytes -= entry.archive().capacity();
+                iterator.remove();
+            }
+        }
+    }
+
+    private void remove(String key) {
+        Entry entry = entries.remove(key);
+        if (entry != null) {
+            currentBytes -= entry.archive().capacity();
+        }
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.flowlogix.starter.engine;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.stream.Stream;
+
+/**
+ * Runs Maven CLI inside the current JVM, using Maven's own libraries loaded once into an isolated class loader.
+ * Maven CLI swaps JVM-wide state (system properties, standard streams, context class loader),
+ * so it's only used by {@link MavenWorker} in a JVM of its own, one invocation at a time,
+ * never inside the application server.
+ */
+final class EmbeddedMaven {
+    private static final String MAVEN_CLI = "org.apache.maven.cli.MavenCli";
+    private static final String MULTI_MODULE_DIRECTORY = "maven.multiModuleProjectDirectory";
+    private final ClassLoader classLoader;
+    private final Method doMain;
+
+    private EmbeddedMaven(Path mavenHome) throws IOException, ReflectiveOperationException {
+        try (var jars = Stream.concat(Files.walk(mavenHome.resolve("boot")), Files.walk(mavenHome.resolve("lib")))) {
+            classLoader = new URLClassLoader("maven", jars.filter(path -> path.toString().endsWith(".jar"))
+                    .map(EmbeddedMaven::toURL).toArray(URL[]::new), ClassLoader.getPlatformClassLoader());
+        }
+        System.getProperties().putIfAbsent("maven.home", mavenHome.toString());
+        System.getProperties().putIfAbsent("maven.conf", mavenHome.resolve("conf").toString());
+        doMain = classLoader.loadClass(MAVEN_CLI).getMethod("doMain", String[].class, String.class,
+                PrintStream.class, PrintStream.class);
+    }
+
+    static EmbeddedMaven create(String mavenHome) throws IOException, ReflectiveOperationException {
+        return new EmbeddedMaven(findMavenHome(mavenHome).orElseThrow(
+                () -> new IOException("Maven installation not found")));
+    }
+
+    static Optional<Path> findMavenHome(String configured) {
+        return Stream.of(configured, System.getProperty("maven.home"), System.getenv("MAVEN_HOME"))
+                .filter(Objects::nonNull).filter(home -> !home.isBlank()).map(Path::of).findFirst()
+                .or(EmbeddedMaven::findMavenHomeFromPath)
+                .filter(home -> Files.isDirectory(home.resolve("lib")));
+    }
+
+    int run(List<String> arguments, Path workingDirectory, PrintStream output)
+            throws ReflectiveOperationException {
+        Properties systemProperties = (Properties) System.getProperties().clone();
+        Thread thread = Thread.currentThread();
+        ClassLoader contextClassLoader = thread.getContextClassLoader();
+        try {
+            thread.setContextClassLoader(classLoader);
+            System.setProperty(MULTI_MODULE_DIRECTORY, workingDirectory.toString());
+            Object cli = classLoader.loadClass(MAVEN_CLI).getConstructor().newInstance();
+            return (int) doMain.invoke(cli, arguments.toArray(String[]::new), workingDirectory.toString(),
+                    output, output);
+        } catch (InvocationTargetException e) {
+            e.getCause().printStackTrace(output);
+            return -1;
+        } finally {
+            thread.setContextClassLoader(contextClassLoader);
+            System.setProperties(systemProperties);
+        }
+    }
+
+    private static Optional<Path> findMavenHomeFromPath() {
+        return Optional.ofNullable(System.getenv("PATH")).stream()
+                .flatMap(path -> Stream.of(path.split(File.pathSeparator)))
+                .map(directory -> Path.of(directory, "mvn")).filter(Files::isExecutable).findFirst()
+                .map(EmbeddedMaven::toRealPath).map(mvn -> mvn.getParent().getParent());
+    }
+
+    private static Path toRealPath(Path path) {
+        try {
+            return path.toRealPath();
+        } catch (IOException e) {
+            return path;
+        }
+    }
+
+    private static URL toURL(Path path) {
+        try {
+            return path.toUri().toURL();
+        } catch (MalformedURLException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+}
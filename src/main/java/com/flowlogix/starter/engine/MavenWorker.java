@@ -0,0 +1,93 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.flowlogix.starter.engine;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Long-lived worker process, started by {@link WorkerPoolEngine}, that keeps Maven loaded between jobs.
+ * Requests and responses are single lines on standard input / output, with arguments Base64-encoded.
+ */
+public final class MavenWorker {
+    static final String READY = "READY";
+    static final String PING = "PING";
+    static final String PONG = "PONG";
+    static final String RUN = "RUN";
+    static final String RESULT = "RESULT";
+    static final String ERROR = "ERROR";
+
+    private MavenWorker() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        PrintStream protocol = System.out;
+        System.setOut(System.err);
+        EmbeddedMaven maven = EmbeddedMaven.create(args.length > 0 ? args[0] : null);
+        maven.run(List.of("-B", "-v"), Path.of(System.getProperty("java.io.tmpdir")),
+                new PrintStream(OutputStream.nullOutputStream()));
+        protocol.println("%s %d".formatted(READY, committedMemory()));
+        protocol.flush();
+        var input = new BufferedReader(new InputStreamReader(System.in, UTF_8));
+        for (String line = input.readLine(); line != null; line = input.readLine()) {
+            protocol.println(handle(maven, line));
+            protocol.flush();
+        }
+    }
+
+    static String encode(String value) {
+        return Base64.getEncoder().encodeToString(value.getBytes(UTF_8));
+    }
+
+    static String decode(String value) {
+        return new String(Base64.getDecoder().decode(value), UTF_8);
+    }
+
+    private static String handle(EmbeddedMaven maven, String line) {
+        String[] tokens = line.split(" ");
+        switch (tokens[0]) {
+            case PING:
+                return "%s %d".formatted(PONG, committedMemory());
+            case RUN:
+                var output = new ByteArrayOutputStream();
+                int status;
+                try (var printStream = new PrintStream(output, true, UTF_8)) {
+                    status = maven.run(Arrays.stream(tokens).skip(2).map(MavenWorker::decode).toList(),
+                            Path.of(decode(tokens[1])), printStream);
+                } catch (ReflectiveOperationException e) {
+                    return "%s %s".formatted(ERROR, encode(e.toString()));
+                }
+                return "%s %d %d %s".formatted(RESULT, status, committedMemory(), encode(output.toString(UTF_8)));
+            default:
+                return "%s %s".formatted(ERROR, encode("Unknown command: " + tokens[0]));
+        }
+    }
+
+    private static long committedMemory() {
+        return Runtime.getRuntime().totalMemory();
+    }
+}
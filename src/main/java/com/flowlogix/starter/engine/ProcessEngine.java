@@ -0,0 +1,147 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.flowlogix.starter.engine;
+
+import com.flowlogix.starter.ArchetypeGenerator.ReturnValue;
+import com.flowlogix.starter.GenerationCancelledException;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.inject.Named;
+import lombok.extern.slf4j.Slf4j;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Stream;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+@Slf4j
+@ApplicationScoped
+@Named(ProcessEngine.NAME)
+public class ProcessEngine implements GeneratorEngine {
+    /** Name of the default engine, which forks Maven for every generation. */
+    public static final String NAME = "process";
+    @SuppressWarnings("checkstyle:MagicNumber")
+    private static final long DEFAULT_TIMEOUT_SECONDS = 120;
+    @SuppressWarnings("checkstyle:MagicNumber")
+    private static final int DEFAULT_OUTPUT_LIMIT = 64 * 1024;
+    @SuppressWarnings("checkstyle:MagicNumber")
+    private static final long DRAIN_SECONDS = 5;
+    private static final String TRUNCATED = "...\n";
+    private final String executable;
+    private final long timeoutSeconds;
+    private final int outputLimit;
+
+    public ProcessEngine() {
+        this("mvn");
+    }
+
+    public ProcessEngine(String executable) {
+        this(executable, DEFAULT_TIMEOUT_SECONDS, DEFAULT_OUTPUT_LIMIT);
+    }
+
+    @Inject
+    public ProcessEngine(@ConfigProperty(name = "com.flowlogix.starter.maven-executable", defaultValue = "mvn")
+                         String executable,
+                         @ConfigProperty(name = "com.flowlogix.starter.generation-timeout-seconds",
+                                 defaultValue = "120") long timeoutSeconds,
+                         @ConfigProperty(name = "com.flowlogix.starter.maven-output-limit", defaultValue = "65536")
+                         int outputLimit) {
+        this.executable = executable;
+        this.timeoutSeconds = timeoutSeconds;
+        this.outputLimit = outputLimit;
+    }
+
+    @Override
+    public ReturnValue generate(Path projectDirectory, List<String> commandLine) {
+        Process mavenProcess;
+        try {
+            mavenProcess = new ProcessBuilder().command(Stream.concat(Stream.of(executable),
+                    commandLine.stream().skip(1)).toList()).directory(projectDirectory.toFile())
+                    .redirectErrorStream(true).start();
+        } catch (IOException e) {
+            log.debug("Failed to execute Maven process", e);
+            return new ReturnValue(projectDirectory, -1, e.getMessage());
+        }
+        var output = new FutureTask<>(() -> tail(mavenProcess.getInputStream(), outputLimit));
+        Thread.ofVirtual().name("maven-output-" + mavenProcess.pid()).start(output);
+        try {
+            if (!mavenProcess.waitFor(timeoutSeconds, TimeUnit.SECONDS)) {
+                destroyTree(mavenProcess);
+                log.warn("Maven process {} timed out after {} seconds", mavenProcess.pid(), timeoutSeconds);
+                return new ReturnValue(projectDirectory, -1, "Maven timed out after %d seconds%n%s"
+                        .formatted(timeoutSeconds, output(output)));
+            }
+            return new ReturnValue(projectDirectory, mavenProcess.exitValue(), output(output));
+        } catch (InterruptedException e) {
+            destroyTree(mavenProcess);
+            Thread.currentThread().interrupt();
+            throw new GenerationCancelledException("Maven run cancelled", e);
+        }
+    }
+
+    /**
+     * Kills the process together with its descendants,
+     * the mvn launcher script forks the JVM that does the actual work.
+     */
+    static void destroyTree(Process process) {
+        process.descendants().forEach(ProcessHandle::destroyForcibly);
+        process.destroyForcibly();
+    }
+
+    private static String output(FutureTask<String> output) throws InterruptedException {
+        try {
+            // descendants that outlive Maven may keep the pipe open
+            return output.get(DRAIN_SECONDS, TimeUnit.SECONDS);
+        } catch (ExecutionException | TimeoutException e) {
+            output.cancel(true);
+            log.debug("Unable to read Maven output", e);
+            return "";
+        }
+    }
+
+    /**
+     * Reads the stream until its end, keeping only the last {@code limit} bytes,
+     * which is where Maven reports failures.
+     */
+    private static String tail(InputStream input, int limit) throws IOException {
+        var bytes = new ByteArrayOutputStream();
+        byte[] buffer = new byte[Math.min(limit, DEFAULT_OUTPUT_LIMIT)];
+        boolean truncated = false;
+        int bytesRead;
+        while ((bytesRead = input.read(buffer)) >= 0) {
+            bytes.write(buffer, 0, bytesRead);
+            if (bytes.size() > 2 * limit) {
+                byte[] retained = bytes.toByteArray();
+                bytes.reset();
+                bytes.write(retained, retained.length - limit, limit);
+                truncated = true;
+            }
+        }
+        byte[] result = bytes.toByteArray();
+        int start = Math.max(0, result.length - limit);
+        return (truncated || start > 0 ? TRUNCATED : "") + new String(result, start, result.length - start, UTF_8);
+    }
+}
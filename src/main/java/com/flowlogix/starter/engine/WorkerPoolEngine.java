@@ -0,0 +1,322 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.flowlogix.starter.engine;
+
+import com.flowlogix.starter.ArchetypeGenerator.ReturnValue;
+import com.flowlogix.starter.GenerationCancelledException;
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import jakarta.enterprise.concurrent.ManagedScheduledExecutorService;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.Startup;
+import jakarta.inject.Inject;
+import jakarta.inject.Named;
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.URISyntaxException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import static com.flowlogix.starter.engine.MavenWorker.decode;
+import static com.flowlogix.starter.engine.MavenWorker.encode;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+@Slf4j
+@ApplicationScoped
+@Named(WorkerPoolEngine.NAME)
+public class WorkerPoolEngine implements GeneratorEngine {
+    static final String NAME = "pool";
+    @SuppressWarnings("checkstyle:MagicNumber")
+    private static final long MEGABYTE = 1024 * 1024;
+    @SuppressWarnings("checkstyle:MagicNumber")
+    private static final long HEALTH_CHECK_SECONDS = 30;
+    @SuppressWarnings("checkstyle:MagicNumber")
+    private static final long BORROW_TIMEOUT_SECONDS = 60;
+    @Resource
+    ManagedScheduledExecutorService scheduler;
+    private final boolean enabled;
+    private final int poolSize;
+    private final int maxJobs;
+    private final long maxMemory;
+    private final List<String> workerCommand;
+    private final long timeoutSeconds;
+    private final ProcessEngine fallback;
+    private final BlockingQueue<Worker> idleWorkers = new LinkedBlockingQueue<>();
+    // every started worker, idle or borrowed
+    private final Set<Worker> workers = ConcurrentHashMap.newKeySet();
+    // started and starting workers, never more than the pool size
+    private final AtomicInteger liveWorkers = new AtomicInteger();
+    private volatile boolean stopped;
+    // the last attempt to start a worker failed
+    private volatile boolean unavailable;
+
+    private static final class Worker {
+        private final Process process;
+        private final BufferedReader reader;
+        private final Writer writer;
+        private int jobs;
+        private long committedMemory;
+
+        private Worker(Process process) {
+            this.process = process;
+            this.reader = new BufferedReader(new InputStreamReader(process.getInputStream(), UTF_8));
+            this.writer = new OutputStreamWriter(process.getOutputStream(), UTF_8);
+        }
+
+        private String[] request(String line) throws IOException {
+            writer.write(line);
+            writer.write('\n');
+            writer.flush();
+            String response = reader.readLine();
+            if (response == null) {
+                throw new IOException("Maven worker %d exited".formatted(process.pid()));
+            }
+            return response.split(" ");
+        }
+    }
+
+    public WorkerPoolEngine() {
+        this("", 1, 0, 0, Optional.empty(), List.of(), 0, new ProcessEngine());
+    }
+
+    @Inject
+    public WorkerPoolEngine(@ConfigProperty(name = "com.flowlogix.starter.engine", defaultValue = ProcessEngine.NAME)
+                            String engineName,
+                            @ConfigProperty(name = "com.flowlogix.starter.generator-threads", defaultValue = "4")
+                            int poolSize,
+                            @ConfigProperty(name = "com.flowlogix.starter.worker.max-jobs", defaultValue = "100")
+                            int maxJobs,
+                            @ConfigProperty(name = "com.flowlogix.starter.worker.max-memory-megabytes",
+                                    defaultValue = "384") long maxMemoryMegabytes,
+                            @ConfigProperty(name = "com.flowlogix.starter.maven-home") Optional<String> mavenHome,
+                            @ConfigProperty(name = "com.flowlogix.starter.worker.jvm-options",
+                                    defaultValue = "-Xmx512m,-XX:TieredStopAtLevel=1") List<String> jvmOptions,
+                            @ConfigProperty(name = "com.flowlogix.starter.generation-timeout-seconds",
+                                    defaultValue = "120") long timeoutSeconds,
+                            ProcessEngine fallback) {
+        this(NAME.equals(engineName), poolSize, maxJobs, maxMemoryMegabytes * MEGABYTE,
+                workerCommand(mavenHome, jvmOptions), timeoutSeconds, fallback);
+    }
+
+    WorkerPoolEngine(int poolSize, int maxJobs, long maxMemory, List<String> workerCommand, long timeoutSeconds,
+                     ProcessEngine fallback) {
+        this(true, poolSize, maxJobs, maxMemory, workerCommand, timeoutSeconds, fallback);
+    }
+
+    private WorkerPoolEngine(boolean enabled, int poolSize, int maxJobs, long maxMemory, List<String> workerCommand,
+                             long timeoutSeconds, ProcessEngine fallback) {
+        this.enabled = enabled;
+        this.poolSize = poolSize;
+        this.maxJobs = maxJobs;
+        this.maxMemory = maxMemory;
+        this.workerCommand = workerCommand;
+        this.timeoutSeconds = timeoutSeconds;
+        this.fallback = fallback;
+    }
+
+    /**
+     * Workers start in the background, so that they are warm by the first request without holding up deployment.
+     * Workers that fail to start are retried by the health check, until then generation forks Maven.
+     */
+    void start(@Observes Startup startup) {
+        if (enabled) {
+            log.info("Starting {} Maven workers", poolSize);
+            scheduler.scheduleWithFixedDelay(this::healthCheck, 0, HEALTH_CHECK_SECONDS, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * Borrowed workers are destroyed as well, their callers see a failed generation.
+     */
+    @PreDestroy
+    void stop() {
+        stopped = true;
+        idleWorkers.clear();
+        List.copyOf(workers).forEach(this::destroy);
+    }
+
+    int getLiveWorkers() {
+        return liveWorkers.get();
+    }
+
+    @Override
+    public ReturnValue generate(Path projectDirectory, List<String> commandLine) {
+        // while a worker is being started or replaced, wait for it rather than forking Maven
+        Worker worker = stopped || unavailable ? null : borrow();
+        if (worker == null) {
+            return fallback.generate(projectDirectory, commandLine);
+        }
+        // worker I/O is not interruptible, kill the worker when the caller is cancelled or times out
+        Thread caller = Thread.currentThread();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(timeoutSeconds);
+        var watchdog = scheduler.scheduleWithFixedDelay(() -> {
+            if (caller.isInterrupted() || System.nanoTime() - deadline > 0) {
+                ProcessEngine.destroyTree(worker.process);
+            }
+        }, 1, 1, TimeUnit.SECONDS);
+        try {
+            String[] response = worker.request(Stream.concat(Stream.of(MavenWorker.RUN,
+                            encode(projectDirectory.toString()), encode("-B")),
+                    commandLine.stream().skip(1).map(MavenWorker::encode)).collect(Collectors.joining(" ")));
+            if (!MavenWorker.RESULT.equals(response[0])) {
+                return new ReturnValue(projectDirectory, -1, decode(response[1]));
+            }
+            ++worker.jobs;
+            worker.committedMemory = Long.parseLong(response[2]);
+            return new ReturnValue(projectDirectory, Integer.parseInt(response[1]),
+                    response.length > 3 ? decode(response[3]) : "");
+        } catch (IOException e) {
+            log.debug("Maven worker failed", e);
+            worker.process.destroyForcibly();
+            if (caller.isInterrupted()) {
+                throw new GenerationCancelledException("Maven run cancelled", e);
+            }
+            return new ReturnValue(projectDirectory, -1, System.nanoTime() - deadline > 0
+                    ? "Maven timed out after %d seconds".formatted(timeoutSeconds) : e.getMessage());
+        } finally {
+            watchdog.cancel(false);
+            release(worker);
+        }
+    }
+
+    private Worker borrow() {
+        try {
+            return idleWorkers.poll(BORROW_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new GenerationCancelledException("Cancelled waiting for a Maven worker", e);
+        }
+    }
+
+    private void release(Worker worker) {
+        if (worker.process.isAlive() && worker.jobs < maxJobs && worker.committedMemory < maxMemory) {
+            idleWorkers.add(worker);
+        } else {
+            log.debug("Recycling Maven worker {} after {} jobs, {} bytes committed",
+                    worker.process.pid(), worker.jobs, worker.committedMemory);
+            destroy(worker);
+            if (!stopped) {
+                scheduler.execute(this::replaceWorkers);
+            }
+        }
+    }
+
+    void healthCheck() {
+        for (int ii = idleWorkers.size(); ii > 0; --ii) {
+            Worker worker = idleWorkers.poll();
+            if (worker == null) {
+                break;
+            }
+            try {
+                worker.committedMemory = Long.parseLong(worker.request(MavenWorker.PING)[1]);
+            } catch (IOException | RuntimeException e) {
+                log.debug("Maven worker {} failed health check", worker.process.pid(), e);
+                worker.process.destroyForcibly();
+            }
+            release(worker);
+        }
+        replaceWorkers();
+    }
+
+    /**
+     * The only way workers are added after startup, whether they were recycled, failed the health check
+     * or failed to start before.
+     */
+    private void replaceWorkers() {
+        try {
+            while (addWorker()) {
+                unavailable = false;
+                log.debug("Replaced Maven worker, {} live", liveWorkers.get());
+            }
+        } catch (IOException e) {
+            unavailable = true;
+            log.warn("Unable to start Maven worker, forking Maven processes until one starts", e);
+        }
+    }
+
+    /**
+     * @return false if the pool is full or stopped
+     */
+    private boolean addWorker() throws IOException {
+        if (stopped || liveWorkers.getAndUpdate(count -> count < poolSize ? count + 1 : count) >= poolSize) {
+            return false;
+        }
+        Worker worker;
+        try {
+            worker = startWorker();
+        } catch (IOException e) {
+            liveWorkers.decrementAndGet();
+            throw e;
+        }
+        workers.add(worker);
+        if (stopped) {
+            destroy(worker);
+            return false;
+        }
+        idleWorkers.add(worker);
+        return true;
+    }
+
+    @SneakyThrows(URISyntaxException.class)
+    private static List<String> workerCommand(Optional<String> mavenHome, List<String> jvmOptions) {
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(jvmOptions);
+        command.addAll(List.of("-cp", Path.of(MavenWorker.class.getProtectionDomain().getCodeSource()
+                .getLocation().toURI()).toString(), MavenWorker.class.getName()));
+        mavenHome.ifPresent(command::add);
+        return command;
+    }
+
+    private Worker startWorker() throws IOException {
+        var worker = new Worker(new ProcessBuilder(workerCommand).redirectError(ProcessBuilder.Redirect.INHERIT)
+                .start());
+        String ready = worker.reader.readLine();
+        if (ready == null || !ready.startsWith(MavenWorker.READY)) {
+            worker.process.destroyForcibly();
+            throw new IOException("Maven worker failed to start");
+        }
+        worker.committedMemory = Long.parseLong(ready.split(" ")[1]);
+        log.debug("Started Maven worker {}", worker.process.pid());
+        return worker;
+    }
+
+    private void destroy(Worker worker) {
+        if (workers.remove(worker)) {
+            ProcessEngine.destroyTree(worker.process);
+            liveWorkers.decrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,200 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.flowlogix.starter.snapshot;
+
+import com.flowlogix.starter.ArchetypeGenerator.Parameter;
+import com.flowlogix.starter.ArchiveWriter;
+import lombok.Getter;
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Stream;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.function.Predicate.not;
+
+/**
+ * Project generated once with sentinel coordinates, rendered into a zip per request
+ * by substituting the real coordinates in a single streaming pass.
+ */
+public final class Snapshot {
+    private static final List<String> SENTINEL_WORDS = List.of("zzgroupidzz", "zzartifactidzz",
+            "zzpackagezz", "zzsnapshotzz", "zzprojectnamezz", "zzversionzz");
+    private final List<Entry> entries;
+    @Getter
+    private final boolean rewritable;
+    @Getter
+    private final long size;
+
+    private enum Token {
+        PACKAGE_PATH("package", "zzpackagezz/zzsnapshotzz"),
+        PACKAGE("package", "zzpackagezz.zzsnapshotzz"),
+        GROUP_ID("groupId", "zzgroupidzz"),
+        ARTIFACT_ID("artifactId", "zzartifactidzz"),
+        PROJECT_NAME("projectName", "zzprojectnamezz"),
+        VERSION("version", "zzversionzz");
+
+        private final String key;
+        private final String sentinel;
+
+        Token(String key, String sentinel) {
+            this.key = key;
+            this.sentinel = sentinel;
+        }
+
+        private byte[] replacement(Map<String, String> parameters) {
+            String value = parameters.get(key);
+            return (this == PACKAGE_PATH ? value.replace('.', '/') : value).getBytes(UTF_8);
+        }
+    }
+
+    private record Segment(byte[] literal, Token token) {
+        private byte[] bytes(Map<Token, byte[]> values) {
+            return token == null ? literal : values.get(token);
+        }
+    }
+
+    private record Template(List<Segment> segments) {
+        private void writeTo(OutputStream outputStream, Map<Token, byte[]> values) throws IOException {
+            for (Segment segment : segments) {
+                outputStream.write(segment.bytes(values));
+            }
+        }
+
+        private String toString(Map<Token, byte[]> values) throws IOException {
+            var bytes = new ByteArrayOutputStream();
+            writeTo(bytes, values);
+            return bytes.toString(UTF_8);
+        }
+
+        private String literalText() {
+            var text = new StringBuilder();
+            segments.stream().filter(segment -> segment.token == null)
+                    .forEach(segment -> text.append(new String(segment.literal, UTF_8)));
+            return text.toString();
+        }
+    }
+
+    private record Entry(Template name, Template content, boolean executable) { }
+
+    private Snapshot(List<Entry> entries) {
+        this.entries = entries;
+        this.rewritable = entries.stream().flatMap(entry -> Stream.of(entry.name, entry.content))
+                .map(Template::literalText).map(text -> text.toLowerCase(Locale.ROOT))
+                .noneMatch(text -> SENTINEL_WORDS.stream().anyMatch(text::contains));
+        this.size = entries.stream().flatMap(entry -> entry.content.segments.stream())
+                .mapToLong(segment -> segment.token == null ? segment.literal.length : 0).sum();
+    }
+
+    public static Map<String, String> structure(Map<String, String> parameters) {
+        var structure = new LinkedHashMap<>(parameters);
+        Arrays.stream(Token.values()).forEach(token -> structure.remove(token.key));
+        return structure;
+    }
+
+    public static Parameter[] withSentinels(Parameter[] parameters) {
+        return Stream.concat(parameters == null ? Stream.empty() : Stream.of(parameters),
+                Stream.of(Token.values()).filter(not(Token.PACKAGE_PATH::equals))
+                        .map(token -> new Parameter(token.key, token.sentinel)))
+                .toArray(Parameter[]::new);
+    }
+
+    public static Snapshot load(Path sourceDirPath) throws IOException {
+        var entries = new ArrayList<Entry>();
+        try (var paths = Files.walk(sourceDirPath)) {
+            for (Path path : paths.filter(not(Files::isDirectory)).sorted().toList()) {
+                byte[] content = Files.readAllBytes(path);
+                entries.add(new Entry(compile(sourceDirPath.relativize(path).toString()),
+                        isText(content) ? compile(new String(content, UTF_8))
+                                : new Template(List.of(new Segment(content, null))),
+                        Files.isExecutable(path)));
+            }
+        }
+        return new Snapshot(List.copyOf(entries));
+    }
+
+    @SuppressWarnings({"checkstyle:IllegalTokenText", "checkstyle:MagicNumber"})
+    public long render(Map<String, String> parameters, OutputStream outputStream, int compressionLevel)
+            throws IOException {
+        Map<Token, byte[]> values = new EnumMap<>(Token.class);
+        Arrays.stream(Token.values()).forEach(token -> values.put(token, token.replacement(parameters)));
+        try (var zipOutputStream = new ZipArchiveOutputStream(outputStream)) {
+            zipOutputStream.setLevel(compressionLevel);
+            for (Entry entry : entries) {
+                ZipArchiveEntry zipEntry = new ZipArchiveEntry(entry.name.toString(values));
+                zipEntry.setTime(ArchiveWriter.zipEntryTime());
+                if (entry.executable) {
+                    zipEntry.setUnixMode(0755);
+                }
+                zipOutputStream.putArchiveEntry(zipEntry);
+                entry.content.writeTo(zipOutputStream, values);
+                zipOutputStream.closeArchiveEntry();
+            }
+            zipOutputStream.finish();
+            return zipOutputStream.getBytesWritten();
+        }
+    }
+
+    private static Template compile(String text) {
+        var segments = new ArrayList<Segment>();
+        int start = 0;
+        while (true) {
+            Token next = null;
+            int index = -1;
+            for (Token token : Token.values()) {
+                int found = text.indexOf(token.sentinel, start);
+                if (found >= 0 && (index < 0 || found < index)) {
+                    next = token;
+                    index = found;
+                }
+            }
+            if (next == null) {
+                break;
+            }
+            if (index > start) {
+                segments.add(new Segment(text.substring(start, index).getBytes(UTF_8), null));
+            }
+            segments.add(new Segment(null, next));
+            start = index + next.sentinel.length();
+        }
+        if (start < text.length()) {
+            segments.add(new Segment(text.substring(start).getBytes(UTF_8), null));
+        }
+        return new Template(List.copyOf(segments));
+    }
+
+    private static boolean isText(byte[] content) {
+        for (byte value : content) {
+            if (value == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,182 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.flowlogix.starter.snapshot;
+
+import com.flowlogix.starter.GenerationCancelledException;
+import com.flowlogix.starter.cache.ArchiveCache;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Supplier;
+import static com.flowlogix.starter.ArchetypeGenerator.ARCHETYPE_VERSION;
+
+/**
+ * Least recently used snapshots, bounded by their total size and expired after the time to live.
+ * Snapshots of the previous {@code LATEST} archetype version are dropped once a new version is released.
+ */
+@Slf4j
+@ApplicationScoped
+public class SnapshotStore {
+    @SuppressWarnings("checkstyle:MagicNumber")
+    private static final long MEGABYTE = 1024 * 1024;
+    @Getter
+    private final boolean enabled;
+    private final long maxBytes;
+    private final Duration timeToLive;
+    private final Map<String, Entry> snapshots = new LinkedHashMap<>(16, 0.75f, true);
+    private long currentBytes;
+    private String latestVersion;
+
+    private record Entry(CompletableFuture<Optional<Snapshot>> snapshot, String version, Instant expires) {
+        private long size() {
+            return snapshot.getNow(Optional.empty()).map(Snapshot::getSize).orElse(0L);
+        }
+    }
+
+    public SnapshotStore() {
+        this(false, 0, 0);
+    }
+
+    @Inject
+    public SnapshotStore(@ConfigProperty(name = "com.flowlogix.starter.snapshot.enabled", defaultValue = "false")
+                         boolean enabled,
+                         @ConfigProperty(name = "com.flowlogix.starter.snapshot.max-megabytes", defaultValue = "64")
+                         long maxMegabytes,
+                         @ConfigProperty(name = "com.flowlogix.starter.snapshot.ttl-minutes", defaultValue = "60")
+                         long ttlMinutes) {
+        this.enabled = enabled;
+        this.maxBytes = maxMegabytes * MEGABYTE;
+        this.timeToLive = Duration.ofMinutes(ttlMinutes);
+    }
+
+    /**
+     * Returns the rewritable snapshot for the structural parameters, building it at most once
+     * at a time. Builds that fail are not remembered, so the next request retries them.
+     *
+     * @throws GenerationCancelledException if interrupted while waiting for another request's build
+     */
+    public Optional<Snapshot> get(Map<String, String> parameters, Supplier<Optional<Snapshot>> builder) {
+        String key = ArchiveCache.key(Snapshot.structure(parameters));
+        var entry = new Entry(new CompletableFuture<>(), parameters.get(ARCHETYPE_VERSION),
+                Instant.now().plus(timeToLive));
+        Entry existing;
+        synchronized (this) {
+            existing = snapshots.get(key);
+            if (existing != null && existing.snapshot().isDone() && Instant.now().isAfter(existing.expires())) {
+                remove(key);
+                existing = null;
+            }
+            if (existing == null) {
+                snapshots.put(key, entry);
+            }
+        }
+        if (existing != null) {
+            return await(existing.snapshot()).filter(Snapshot::isRewritable);
+        }
+        Optional<Snapshot> snapshot = Optional.empty();
+        try {
+            snapshot = builder.get();
+            snapshot.ifPresent(built -> log.info("Built snapshot {}, {} bytes, rewritable: {}",
+                    key, built.getSize(), built.isRewritable()));
+        } finally {
+            entry.snapshot().complete(snapshot);
+            stored(key, entry);
+        }
+        return snapshot.filter(Snapshot::isRewritable);
+    }
+
+    /**
+     * Drops the snapshots of the previous {@code LATEST} version when it changes.
+     * Snapshots of versions requested explicitly are kept until they expire or are evicted.
+     */
+    public synchronized void retainLatest(String version) {
+        if (latestVersion != null && !latestVersion.equals(version)) {
+            String previous = latestVersion;
+            snapshots.entrySet().removeIf(candidate -> {
+                boolean stale = previous.equals(candidate.getValue().version());
+                if (stale) {
+                    currentBytes -= candidate.getValue().size();
+                }
+                return stale;
+            });
+            log.debug("Archetype version {} replaced {}, dropped its snapshots", version, previous);
+        }
+        latestVersion = version;
+    }
+
+    public synchronized int size() {
+        return snapshots.size();
+    }
+
+    public synchronized long getBytes() {
+        return currentBytes;
+    }
+
+    public synchronized void clear() {
+        snapshots.clear();
+        currentBytes = 0;
+    }
+
+    private synchronized void stored(String key, Entry entry) {
+        if (snapshots.get(key) != entry) {
+            return;
+        }
+        if (entry.snapshot().join().isEmpty()) {
+            snapshots.remove(key);
+            return;
+        }
+        currentBytes += entry.size();
+        Instant now = Instant.now();
+        for (Iterator<Entry> iterator = snapshots.values().iterator(); iterator.hasNext();) {
+            Entry candidate = iterator.next();
+            if (candidate.snapshot().isDone() && (currentBytes > maxBytes || now.isAfter(candidate.expires()))) {
+                currentBytes -= candidate.size();
+                iterator.remove();
+            }
+        }
+    }
+
+    private void remove(String key) {
+        Entry entry = snapshots.remove(key);
+        if (entry != null) {
+            currentBytes -= entry.size();
+        }
+    }
+
+    private static Optional<Snapshot> await(CompletableFuture<Optional<Snapshot>> snapshot) {
+        try {
+            return snapshot.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new GenerationCancelledException("Cancelled waiting for a snapshot", e);
+        } catch (ExecutionException e) {
+            return Optional.empty();
+        }
+    }
+}
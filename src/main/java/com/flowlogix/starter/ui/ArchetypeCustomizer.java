@@ -18,32 +18,33 @@
  */
 package com.flowlogix.starter.ui;
 
+import com.flowlogix.starter.AdmissionRejectedException;
 import com.flowlogix.starter.ArchetypeGenerator;
+import com.flowlogix.starter.ArchiveFormat;
+import com.flowlogix.starter.GenerationJob;
+import com.flowlogix.starter.GenerationJobs;
 import com.flowlogix.util.ShrinkWrapManipulator;
-import jakarta.annotation.Resource;
-import jakarta.enterprise.concurrent.ManagedExecutorService;
+import jakarta.annotation.PreDestroy;
 import jakarta.enterprise.context.SessionScoped;
 import jakarta.inject.Inject;
 import jakarta.inject.Named;
 import jakarta.validation.constraints.Pattern;
-import jakarta.ws.rs.core.MediaType;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 import org.omnifaces.util.Faces;
-import org.primefaces.model.DefaultStreamedContent;
-import org.primefaces.model.StreamedContent;
-import org.primefaces.util.Callbacks;
-import java.io.InputStream;
+import org.omnifaces.util.Messages;
+import org.primefaces.PrimeFaces;
 import java.io.Serializable;
 import java.net.MalformedURLException;
 import java.net.URI;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
+import java.util.List;
 import java.util.stream.Collectors;
 import static com.flowlogix.starter.ArchetypeGenerator.Parameter;
-import static com.flowlogix.starter.ArchetypeGenerator.ReturnValue;
 import static jakarta.validation.constraints.Pattern.Flag;
 
 @Named("archetype")
@@ -54,9 +55,7 @@ public class ArchetypeCustomizer implements Serializable {
     private static final long serialVersionUID = 1L;
 
     @Inject
-    ArchetypeGenerator generator;
-    @Resource
-    ManagedExecutorService executorService;
+    GenerationJobs jobs;
 
     private String artifact = "";
     private String group = "";
@@ -73,23 +72,29 @@ public class ArchetypeCustomizer implements Serializable {
     private boolean useOmniFaces = true;
     private boolean usePrimeFaces = true;
     private boolean useLazyModel = true;
+    private ArchiveFormat format = ArchiveFormat.ZIP;
+    @Getter(AccessLevel.NONE) @Setter(AccessLevel.NONE)
+    private String jobId;
 
-    public StreamedContent getDownload() {
-        ReturnValue result = generator.generateArchetype(getParameters(false));
-        if (result.status() != 0) {
-            result.close();
-            return null;
+    /**
+     * Starts the generation in the background, the page follows its progress
+     * and fetches the archive once it's ready.
+     */
+    public void startJob() {
+        cancelJob();
+        GenerationJob job;
+        try {
+            job = jobs.submit(getParameters(false), format, "%s%s".formatted(artifact.isBlank()
+                    ? "starter" : artifact.toLowerCase().trim(), format.getExtension()), Faces.getRemoteAddr());
+        } catch (AdmissionRejectedException e) {
+            Messages.addGlobalWarn("The generator is busy right now, please try again in {0} seconds",
+                    e.getRetryAfter().toSeconds());
+            return;
         }
-
-        InputStream input = generator.createZipStream(result, executorService);
-        Callbacks.SerializableSupplier<InputStream> callback = () -> input;
-
-        return DefaultStreamedContent.builder()
-                .name("%s.zip".formatted(artifact.isBlank() ? "starter" : artifact.toLowerCase().trim()))
-                .contentType(MediaType.APPLICATION_OCTET_STREAM)
-                .stream(callback)
-                .writer(output -> generator.writer(result, input, output, true))
-                .build();
+        jobId = job.getId();
+        String path = "%s/download/jobs/%s".formatted(Faces.getRequestContextPath(), jobId);
+        PrimeFaces.current().ajax().addCallbackParam("jobEvents", path + "/events");
+        PrimeFaces.current().ajax().addCallbackParam("jobArchive", path + "/archive");
     }
 
     private Parameter[] getParameters(boolean forCurl) {
@@ -115,13 +120,18 @@ public class ArchetypeCustomizer implements Serializable {
                 .map(parameter -> "%s=%s".formatted(parameter.key(),
                         URLEncoder.encode(parameter.value().trim(), StandardCharsets.UTF_8)
                                 .replace("+", "%20")))
-                .collect(Collectors.joining(";"));
+                .collect(Collectors.joining(";"))
+                + (format == ArchiveFormat.ZIP ? "" : ";format=" + format.getName());
         var baseURL = Faces.isRequestSecure()
                 ? ShrinkWrapManipulator.toHttpsURL(URI.create(Faces.getRequestBaseURL()).toURL())
                 : Faces.getRequestBaseURL();
-        return "curl -X GET -H \"Accept: application/octet-stream\" -o %s.zip \"%sdownload/;%s\""
+        return "curl -X GET -H \"Accept: application/octet-stream\" -o %s%s \"%sdownload/;%s\""
                 .formatted(artifact.isBlank() ? "starter" : artifact.toLowerCase().trim(),
-                        baseURL, parameters);
+                        format.getExtension(), baseURL, parameters);
+    }
+
+    public List<ArchiveFormat> getFormats() {
+        return ArchiveFormat.available();
     }
 
     public String getMavenCommand() {
@@ -129,6 +139,18 @@ public class ArchetypeCustomizer implements Serializable {
                 getParameters(false), null));
     }
 
+    /**
+     * Browsers don't report abandoned downloads, a new download from the same session
+     * or the end of the session cancels the job that is still running.
+     */
+    @PreDestroy
+    synchronized void cancelJob() {
+        if (jobId != null) {
+            jobs.cancel(jobId);
+            jobId = null;
+        }
+    }
+
     public void resetSession() {
         log.debug("Resetting session");
         Faces.invalidateSession();
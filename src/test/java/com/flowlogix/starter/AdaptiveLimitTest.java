@@ -0,0 +1,103 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.flowlogix.starter;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicReference;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdaptiveLimitTest {
+    private static final long RUN_NANOS = 1_000_000_000L;
+    private static final int MAX = 8;
+    private static final double MEMORY_RATIO = 0.75;
+    private static final double CGROUP_RATIO = 0.6;
+    @TempDir
+    Path directory;
+
+    @Test
+    void growsWhileSaturatedAndRunTimeIsStable() {
+        var limit = new AdaptiveLimit(1, MAX, () -> 0, () -> 1);
+        int current = limit.initial(2);
+        for (int ii = 0; ii < MAX * 2; ++ii) {
+            current = limit.update(current, RUN_NANOS, true);
+        }
+        assertThat(current).isEqualTo(MAX);
+        assertThat(limit.update(current, RUN_NANOS, false)).isEqualTo(MAX);
+    }
+
+    @Test
+    void shrinksWhenRunTimeDegrades() {
+        var limit = new AdaptiveLimit(1, MAX, () -> 0, () -> 1);
+        int current = limit.update(MAX, RUN_NANOS, true);
+        for (int ii = 0; ii < MAX; ++ii) {
+            current = limit.update(current, RUN_NANOS * MAX, true);
+        }
+        assertThat(current).isLessThan(MAX).isGreaterThanOrEqualTo(1);
+    }
+
+    @Test
+    void shrinksUnderMemoryPressureDownToFloor() {
+        var freeMemory = new AtomicReference<>(1.0);
+        var limit = new AdaptiveLimit(2, MAX, () -> 0, freeMemory::get);
+        int current = limit.update(MAX, RUN_NANOS, true);
+        freeMemory.set(0.0);
+        for (int ii = 0; ii < MAX * MAX; ++ii) {
+            current = limit.update(current, RUN_NANOS, true);
+        }
+        assertThat(current).isEqualTo(2);
+    }
+
+    @Test
+    void backsOffOncePerWindow() {
+        var limit = new AdaptiveLimit(1, MAX, () -> 2, () -> 1);
+        int current = limit.update(MAX, RUN_NANOS, true);
+        assertThat(current).isEqualTo(MAX - 1);
+        for (int ii = 1; ii < MAX; ++ii) {
+            assertThat(limit.update(current, RUN_NANOS, true)).isEqualTo(MAX - 1);
+        }
+        assertThat(limit.update(current, RUN_NANOS, true)).isLessThan(MAX - 1);
+    }
+
+    @Test
+    void pageCacheCountsAsAvailableMemory() throws IOException {
+        Files.writeString(directory.resolve("meminfo"), """
+                MemTotal:       16000000 kB
+                MemFree:          400000 kB
+                MemAvailable:   12000000 kB
+                """);
+        assertThat(AdaptiveLimit.availableMemoryRatio(directory.resolve("meminfo"), directory))
+                .isEqualTo(MEMORY_RATIO);
+
+        Files.writeString(directory.resolve("memory.max"), "1000\n");
+        Files.writeString(directory.resolve("memory.current"), "900\n");
+        Files.writeString(directory.resolve("memory.stat"), "anon 300\ninactive_file 500\n");
+        assertThat(AdaptiveLimit.availableMemoryRatio(directory.resolve("meminfo"), directory))
+                .isEqualTo(CGROUP_RATIO);
+    }
+
+    @Test
+    void fixedLimitNeverChanges() {
+        var limit = new AdaptiveLimit(MAX / 2, MAX / 2, () -> Double.MAX_VALUE, () -> 0);
+        assertThat(limit.update(MAX / 2, RUN_NANOS, true)).isEqualTo(MAX / 2);
+    }
+}
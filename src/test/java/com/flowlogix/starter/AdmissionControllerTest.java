@@ -0,0 +1,118 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.flowlogix.starter;
+
+import org.junit.jupiter.api.Test;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AdmissionControllerTest {
+    @SuppressWarnings("checkstyle:MagicNumber")
+    private static final int TIMEOUT_SECONDS = 10;
+    private static final int LIMIT = 4;
+    private static final int RUNS = 3;
+    private static final long RUN_MILLIS = 50;
+
+    @Test
+    void rejectsWhenQueueIsFull() {
+        var controller = new AdmissionController(1, 0, 1, 0);
+        try (var ignored = controller.acquire("client")) {
+            assertThatThrownBy(() -> controller.acquire("other"))
+                    .isInstanceOf(AdmissionRejectedException.class)
+                    .extracting(e -> ((AdmissionRejectedException) e).getRetryAfter().toSeconds())
+                    .isEqualTo(1L);
+        }
+        assertThat(controller.getRejected()).isOne();
+        assertThat(controller.getInFlight()).isZero();
+    }
+
+    @Test
+    void rejectsAfterMaxWait() {
+        var controller = new AdmissionController(1, 1, 0, 0);
+        try (var ignored = controller.acquire(null)) {
+            assertThatThrownBy(() -> controller.acquire(null)).isInstanceOf(AdmissionRejectedException.class);
+            assertThat(controller.getQueueDepth()).isZero();
+        }
+    }
+
+    @Test
+    void limitsRequestsPerClient() {
+        var controller = new AdmissionController(2, 1, 1, 1);
+        try (var ignored = controller.acquire("client")) {
+            assertThatThrownBy(() -> controller.acquire("client")).isInstanceOf(AdmissionRejectedException.class);
+            controller.acquire("other").close();
+        }
+        controller.acquire("client").close();
+    }
+
+    @Test
+    void queuedRequestIsAdmittedOnRelease() throws Exception {
+        var controller = new AdmissionController(1, 1, TIMEOUT_SECONDS, 0);
+        var permit = controller.acquire(null);
+        var queued = CompletableFuture.supplyAsync(() -> controller.acquire(null));
+        while (controller.getQueueDepth() == 0) {
+            Thread.onSpinWait();
+        }
+        permit.close();
+        queued.get(TIMEOUT_SECONDS, TimeUnit.SECONDS).close();
+        assertThat(controller.getInFlight()).isZero();
+    }
+
+    @Test
+    void permitsAreHandedOffInArrivalOrder() throws Exception {
+        var controller = new AdmissionController(1, 2, TIMEOUT_SECONDS, 0);
+        var permit = controller.acquire(null);
+        var first = CompletableFuture.supplyAsync(() -> controller.acquire(null));
+        awaitQueueDepth(controller, 1);
+        var second = CompletableFuture.supplyAsync(() -> controller.acquire(null));
+        awaitQueueDepth(controller, 2);
+
+        permit.close();
+        var firstPermit = first.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        assertThat(second).isNotDone();
+        var later = CompletableFuture.supplyAsync(() -> controller.acquire(null));
+        awaitQueueDepth(controller, 2);
+
+        firstPermit.close();
+        second.get(TIMEOUT_SECONDS, TimeUnit.SECONDS).close();
+        later.get(TIMEOUT_SECONDS, TimeUnit.SECONDS).close();
+        assertThat(controller.getInFlight()).isZero();
+    }
+
+    @Test
+    void fastFailureDoesNotShrinkTheLimit() throws InterruptedException {
+        var controller = new AdmissionController(new AdaptiveLimit(1, LIMIT, () -> 0, () -> 1), LIMIT, 1, 1, 0);
+        controller.acquire(null).close();
+        for (int ii = 0; ii < RUNS; ++ii) {
+            try (var permit = controller.acquire(null)) {
+                Thread.sleep(RUN_MILLIS);
+                permit.succeeded();
+            }
+        }
+        assertThat(controller.getLimit()).isEqualTo(LIMIT);
+    }
+
+    private static void awaitQueueDepth(AdmissionController controller, int depth) {
+        while (controller.getQueueDepth() < depth) {
+            Thread.onSpinWait();
+        }
+    }
+}
@@ -0,0 +1,201 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.flowlogix.starter;
+
+import com.flowlogix.starter.ArchetypeGenerator.Parameter;
+import com.flowlogix.starter.ArchetypeGenerator.ReturnValue;
+import com.flowlogix.starter.engine.GeneratorEngine;
+import com.flowlogix.starter.engine.ProcessEngine;
+import jakarta.enterprise.inject.Instance;
+import jakarta.inject.Named;
+import org.apache.commons.compress.archivers.zip.ZipArchiveInputStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import static com.flowlogix.starter.ArchetypeGenerator.ARCHETYPE_VERSION;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+class ArchetypeGeneratorTest {
+    @SuppressWarnings("checkstyle:MagicNumber")
+    private static final int TIMEOUT_SECONDS = 10;
+    private static final int REQUESTS = 4;
+    private static final int CHUNKS = 3;
+    private static final long POLL_MILLIS = 10;
+    @TempDir
+    Path directory;
+
+    @Test
+    void identicalConcurrentRequestsAreCoalesced() throws Exception {
+        var runs = new AtomicInteger();
+        var release = new CountDownLatch(1);
+        var generator = new ArchetypeGenerator(REQUESTS, (projectDirectory, commandLine) -> {
+            runs.incrementAndGet();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return new ReturnValue(projectDirectory, 0, "");
+        });
+        var parameters = new Parameter[] {new Parameter("artifactId", "coalesced")};
+        var threads = new ArrayList<Thread>();
+        var results = new ArrayList<Future<ReturnValue>>();
+        try (var executor = Executors.newFixedThreadPool(REQUESTS, runnable -> {
+            var thread = new Thread(runnable);
+            threads.add(thread);
+            return thread;
+        })) {
+            for (int ii = 0; ii < REQUESTS; ++ii) {
+                results.add(executor.submit(() -> generator.generateArchetype(parameters)));
+            }
+            // the leader waits for the release, the followers for the leader's result
+            assertTimeoutPreemptively(Duration.ofSeconds(TIMEOUT_SECONDS), () -> {
+                while (threads.size() < REQUESTS
+                        || threads.stream().anyMatch(thread -> thread.getState() != Thread.State.WAITING)) {
+                    Thread.sleep(POLL_MILLIS);
+                }
+            });
+            release.countDown();
+            ReturnValue first = results.getFirst().get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            assertThat(runs).hasValue(1);
+            for (var result : results) {
+                assertThat(result.get(TIMEOUT_SECONDS, TimeUnit.SECONDS)).isSameAs(first);
+            }
+            for (int ii = 1; ii < REQUESTS; ++ii) {
+                first.close();
+                assertThat(first.temporaryPath()).isDirectory();
+            }
+            first.close();
+            assertThat(first.temporaryPath()).doesNotExist();
+        }
+    }
+
+    @Test
+    void zipIsStreamedThroughOneBuffer() throws IOException {
+        Map<String, String> files = createFiles();
+        var result = new ReturnValue(directory.resolve("project"), 0, "");
+        var bytes = new ByteArrayOutputStream();
+        new ArchetypeGenerator().streamZip(result, ArchiveFormat.ZIP, bytes);
+
+        var entries = new HashMap<String, String>();
+        try (var zip = new ZipArchiveInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            for (var entry = zip.getNextEntry(); entry != null; entry = zip.getNextEntry()) {
+                entries.put(entry.getName(), new String(zip.readAllBytes(), UTF_8));
+            }
+        }
+        assertThat(entries).isEqualTo(files);
+        assertThat(result.temporaryPath()).doesNotExist();
+    }
+
+    @Test
+    void abortedStreamReleasesTheWorkspace() throws IOException {
+        createFiles();
+        var result = new ReturnValue(directory.resolve("project"), 0, "");
+        new ArchetypeGenerator().streamZip(result, ArchiveFormat.ZIP, new OutputStream() {
+            @Override
+            public void write(int value) throws IOException {
+                throw new IOException("Client disconnected");
+            }
+        });
+        assertThat(result.temporaryPath()).doesNotExist();
+    }
+
+    @Test
+    void latestIsPinnedForMavenAndTheEntityTag() {
+        var commandLines = new ArrayList<List<String>>();
+        GeneratorEngine engine = (projectDirectory, commandLine) -> {
+            commandLines.add(commandLine);
+            return new ReturnValue(projectDirectory, 0, "");
+        };
+        var generator = new ArchetypeGenerator(1, engine, new ArchetypeVersionResolver("", 0) {
+            @Override
+            public Optional<String> latest() {
+                return Optional.of("3.0");
+            }
+        });
+        var parameters = generator.pinVersion(new Parameter[] {new Parameter(ARCHETYPE_VERSION, "LATEST")});
+        assertThat(generator.entityTag(parameters, ArchiveFormat.ZIP)).isPresent();
+        generator.generateArchetype(new Parameter[0]).close();
+        assertThat(commandLines.getFirst()).contains("-D%s=3.0".formatted(ARCHETYPE_VERSION));
+    }
+
+    @Test
+    void unresolvedLatestIsNotTagged() {
+        var generator = new ArchetypeGenerator(1, (projectDirectory, commandLine) -> new ReturnValue(projectDirectory, 0, ""));
+        var parameters = generator.pinVersion(new Parameter[0]);
+        assertThat(generator.entityTag(parameters, ArchiveFormat.ZIP)).isEmpty();
+        assertThat(generator.entityTag(new Parameter[] {new Parameter(ARCHETYPE_VERSION, "1.0")}, ArchiveFormat.ZIP))
+                .isPresent();
+    }
+
+    @Test
+    void unknownEngineFallsBackToTheProcessEngine() {
+        GeneratorEngine process = (projectDirectory, commandLine) -> new ReturnValue(projectDirectory, 0, "");
+        GeneratorEngine pool = (projectDirectory, commandLine) -> new ReturnValue(projectDirectory, 0, "");
+        var engines = engines(Map.of(ProcessEngine.NAME, process, "pool", pool));
+        assertThat(ArchetypeGenerator.selectEngine("pool", engines)).isSameAs(pool);
+        assertThat(ArchetypeGenerator.selectEngine("embedded", engines)).isSameAs(process);
+    }
+
+    /**
+     * One of the files spans several chunks, so the buffer is reused within an entry as well as across entries.
+     */
+    private Map<String, String> createFiles() throws IOException {
+        Path project = Files.createDirectories(directory.resolve("project").resolve("src"));
+        var files = Map.of("src/Small.java", "class Small { }",
+                "src/Large.txt", "x".repeat(ArchiveWriter.DEFAULT_CHUNK_SIZE * CHUNKS + 1));
+        for (var file : files.entrySet()) {
+            Files.writeString(project.getParent().resolve(file.getKey()), file.getValue());
+        }
+        return files;
+    }
+
+    /**
+     * Selects engines by the name of the {@link Named} qualifier.
+     */
+    @SuppressWarnings("unchecked")
+    private static Instance<GeneratorEngine> engines(Map<String, GeneratorEngine> engines) {
+        return (Instance<GeneratorEngine>) Proxy.newProxyInstance(ArchetypeGeneratorTest.class.getClassLoader(),
+                new Class<?>[] {Instance.class}, (proxy, method, arguments) -> {
+                    var engine = engines.get(((Named) ((Object[]) arguments[0])[0]).value());
+                    return Proxy.newProxyInstance(ArchetypeGeneratorTest.class.getClassLoader(),
+                            new Class<?>[] {Instance.class}, (selected, selectedMethod, selectedArguments) ->
+                                    "isResolvable".equals(selectedMethod.getName()) ? engine != null : engine);
+                });
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.flowlogix.starter;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ArchetypeVersionResolverTest {
+    @SuppressWarnings("checkstyle:MagicNumber")
+    private static final int TIMEOUT_SECONDS = 10;
+    private static final int LOOKUPS = 4;
+    private static final String METADATA = "<metadata><versioning><release>%s</release></versioning></metadata>";
+    private final AtomicInteger requests = new AtomicInteger();
+    private final CountDownLatch requested = new CountDownLatch(1);
+    private final CountDownLatch respond = new CountDownLatch(1);
+    private volatile String release;
+    private HttpServer server;
+
+    @BeforeEach
+    void start() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/", exchange -> {
+            requests.incrementAndGet();
+            requested.countDown();
+            try {
+                respond.await(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            String version = release;
+            byte[] body = version == null ? new byte[0] : METADATA.formatted(version).getBytes(UTF_8);
+            exchange.sendResponseHeaders(version == null ? HttpURLConnection.HTTP_UNAVAILABLE
+                    : HttpURLConnection.HTTP_OK, body.length == 0 ? -1 : body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.start();
+    }
+
+    @AfterEach
+    void stop() {
+        server.stop(0);
+    }
+
+    @Test
+    void failureIsCachedAndServesThePreviousVersion() {
+        respond.countDown();
+        var resolver = new ArchetypeVersionResolver(repository(), 0);
+        release = "1.0";
+        assertThat(resolver.latest()).hasValue("1.0");
+
+        release = null;
+        assertThat(resolver.latest()).hasValue("1.0");
+        assertThat(resolver.resolve(ArchetypeVersionResolver.LATEST)).hasValue("1.0");
+        assertThat(requests).hasValue(2);
+    }
+
+    @Test
+    void failureWithoutPreviousVersionIsCached() {
+        respond.countDown();
+        var resolver = new ArchetypeVersionResolver(repository(), 0);
+        assertThat(resolver.latest()).isEmpty();
+        assertThat(resolver.latest()).isEmpty();
+        assertThat(requests).hasValue(1);
+    }
+
+    @Test
+    void concurrentLookupsShareOneFetch() throws Exception {
+        release = "2.0";
+        var resolver = new ArchetypeVersionResolver(repository(), 1);
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            var lookups = new ArrayList<Future<Optional<String>>>();
+            for (int ii = 0; ii < LOOKUPS; ++ii) {
+                lookups.add(executor.submit(resolver::latest));
+            }
+            assertThat(requested.await(TIMEOUT_SECONDS, TimeUnit.SECONDS)).isTrue();
+            respond.countDown();
+            for (var lookup : lookups) {
+                assertThat(lookup.get(TIMEOUT_SECONDS, TimeUnit.SECONDS)).hasValue("2.0");
+            }
+        }
+        assertThat(requests).hasValue(1);
+    }
+
+    @Test
+    void versionsOtherThanLatestAreNotLookedUp() {
+        var resolver = new ArchetypeVersionResolver(repository(), 0);
+        assertThat(resolver.resolve(" 1.5 ")).hasValue("1.5");
+        assertThat(new ArchetypeVersionResolver("", 0).resolve(null)).isEmpty();
+        assertThat(requests).hasValue(0);
+    }
+
+    private String repository() {
+        return "http://localhost:%d/repository/".formatted(server.getAddress().getPort());
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.flowlogix.starter;
+
+import com.flowlogix.starter.ArchetypeGenerator.ReturnValue;
+import org.apache.commons.compress.archivers.ArchiveInputStream;
+import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
+import org.apache.commons.compress.archivers.zip.ZipArchiveInputStream;
+import org.apache.commons.compress.compressors.gzip.GzipCompressorInputStream;
+import org.apache.commons.compress.compressors.zstandard.ZstdCompressorInputStream;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.api.parallel.ResourceLock;
+import org.junit.jupiter.api.parallel.Resources;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.TimeZone;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ArchiveWriterTest {
+    @SuppressWarnings("checkstyle:MagicNumber")
+    private static final int FILES = 40;
+    private final ArchiveWriter writer = new ArchiveWriter();
+
+    @ParameterizedTest
+    @EnumSource(ArchiveFormat.class)
+    void directoryIsArchived(ArchiveFormat format, @TempDir Path directory) throws IOException {
+        Map<String, String> files = createFiles(directory);
+        var bytes = new ByteArrayOutputStream();
+        writer.write(new ReturnValue(directory, 0, ""), format, bytes, new byte[ArchiveWriter.DEFAULT_CHUNK_SIZE]);
+        assertThat(extract(format, bytes.toByteArray())).isEqualTo(files);
+    }
+
+    @ParameterizedTest
+    @EnumSource(ArchiveFormat.class)
+    void cachedArchiveIsTranscoded(ArchiveFormat format, @TempDir Path directory) throws IOException {
+        Map<String, String> files = createFiles(directory);
+        var cached = new ReturnValue(null, 0, "", ByteBuffer.wrap(writer.toBytes(directory)), Map.of());
+        var bytes = new ByteArrayOutputStream();
+        writer.write(cached, format, bytes, new byte[ArchiveWriter.DEFAULT_CHUNK_SIZE]);
+        assertThat(extract(format, bytes.toByteArray())).isEqualTo(files);
+    }
+
+    @ParameterizedTest
+    @EnumSource(ArchiveFormat.class)
+    @ResourceLock(Resources.TIME_ZONE)
+    void archiveIsRepeatable(ArchiveFormat format, @TempDir Path directory) throws IOException {
+        createFiles(directory);
+        var first = new ByteArrayOutputStream();
+        writer.write(new ReturnValue(directory, 0, ""), format, first, new byte[ArchiveWriter.DEFAULT_CHUNK_SIZE]);
+        var second = new ByteArrayOutputStream();
+        TimeZone timeZone = TimeZone.getDefault();
+        try {
+            TimeZone.setDefault(TimeZone.getTimeZone("America/Los_Angeles"));
+            writer.write(new ReturnValue(directory, 0, ""), format, second, new byte[ArchiveWriter.DEFAULT_CHUNK_SIZE]);
+        } finally {
+            TimeZone.setDefault(timeZone);
+        }
+        assertThat(second.toByteArray()).isEqualTo(first.toByteArray());
+    }
+
+    private static Map<String, String> createFiles(Path directory) {
+        return IntStream.range(0, FILES).mapToObj(ii -> write(directory, "src/File%d.java".formatted(ii),
+                "class File%d { }".formatted(ii))).collect(Collectors.toMap(Entry::getKey, Entry::getValue));
+    }
+
+    private static Entry<String, String> write(Path directory, String name, String content) {
+        try {
+            Path path = directory.resolve(name);
+            Files.createDirectories(path.getParent());
+            Files.writeString(path, content);
+            return Map.entry(name, content);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Map<String, String> extract(ArchiveFormat format, byte[] archive) throws IOException {
+        InputStream input = new ByteArrayInputStream(archive);
+        try (ArchiveInputStream<?> archiveInput = switch (format) {
+            case ZIP, STORED -> new ZipArchiveInputStream(input);
+            case TAR_GZ -> new TarArchiveInputStream(new GzipCompressorInputStream(input));
+            case TAR_ZSTD -> new TarArchiveInputStream(new ZstdCompressorInputStream(input));
+        }) {
+            var entries = new HashMap<String, String>();
+            for (var entry = archiveInput.getNextEntry(); entry != null; entry = archiveInput.getNextEntry()) {
+                entries.put(entry.getName(), new String(archiveInput.readAllBytes(), UTF_8));
+            }
+            return entries;
+        }
+    }
+}
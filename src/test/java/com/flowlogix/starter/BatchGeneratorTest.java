@@ -0,0 +1,88 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.flowlogix.starter;
+
+import com.flowlogix.starter.ArchetypeGenerator.Parameter;
+import com.flowlogix.starter.ArchetypeGenerator.ReturnValue;
+import com.flowlogix.starter.BatchGenerator.Project;
+import lombok.SneakyThrows;
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipFile;
+import org.apache.commons.compress.utils.SeekableInMemoryByteChannel;
+import org.junit.jupiter.api.Test;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BatchGeneratorTest {
+    private static final String ARTIFACT = "-DartifactId=";
+
+    @Test
+    void projectsAreWrittenToTheirOwnDirectories() throws IOException {
+        Set<Path> workspaces = ConcurrentHashMap.newKeySet();
+        var generator = new ArchetypeGenerator(2, (projectDirectory, commandLine) -> {
+            workspaces.add(projectDirectory);
+            String artifactId = commandLine.stream().filter(option -> option.startsWith(ARTIFACT))
+                    .findFirst().orElseThrow().substring(ARTIFACT.length());
+            if (artifactId.equals("broken")) {
+                return new ReturnValue(projectDirectory, 1, "BUILD FAILURE");
+            }
+            write(projectDirectory.resolve("pom.xml"), artifactId);
+            return new ReturnValue(projectDirectory, 0, "");
+        });
+        var executor = new AsyncExecutor(true);
+        executor.start();
+        var batchGenerator = new BatchGenerator(generator, new ArchetypeVersionResolver(),
+                new AdmissionController(), new ArchiveWriter(), executor);
+        var bytes = new ByteArrayOutputStream();
+        try {
+            batchGenerator.stream(List.of(project("first"), project("broken"), project("second")),
+                    ArchiveFormat.ZIP, bytes, null);
+        } finally {
+            executor.stop();
+        }
+
+        try (var zipFile = ZipFile.builder().setSeekableByteChannel(
+                new SeekableInMemoryByteChannel(bytes.toByteArray())).get()) {
+            assertThat(Collections.list(zipFile.getEntries()).stream().map(ZipArchiveEntry::getName))
+                    .containsExactlyInAnyOrder("first/pom.xml", "second/pom.xml",
+                            "broken/" + BatchGenerator.FAILURE_FILE);
+            assertThat(zipFile.getInputStream(zipFile.getEntry("second/pom.xml"))).hasContent("second");
+            assertThat(zipFile.getInputStream(zipFile.getEntry("broken/" + BatchGenerator.FAILURE_FILE)))
+                    .hasContent("BUILD FAILURE");
+        }
+        assertThat(workspaces).hasSize(3).allSatisfy(workspace -> assertThat(workspace).doesNotExist());
+    }
+
+    @SneakyThrows(IOException.class)
+    private static void write(Path path, String content) {
+        Files.writeString(path, content);
+    }
+
+    private static Project project(String artifactId) {
+        return new Project(artifactId, new Parameter[] {new Parameter("artifactId", artifactId),
+                new Parameter(ArchetypeGenerator.ARCHETYPE_VERSION, "1.0")});
+    }
+}
@@ -0,0 +1,45 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.flowlogix.starter;
+
+import com.flowlogix.starter.ArchetypeGenerator.Parameter;
+import org.junit.jupiter.api.Test;
+import java.util.List;
+import java.util.Map;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CacheWarmerTest {
+    private static final List<String> BASE_TYPES = List.of("payara", " infra", "");
+
+    @Test
+    void defaultsComeFirst() {
+        List<Map<String, String>> configurations = CacheWarmer.configurations(BASE_TYPES, 0).stream()
+                .map(parameters -> ArchetypeGenerator.extractParameters(parameters, null)).toList();
+        assertThat(configurations).hasSize(2 << CacheWarmer.FLAGS.size()).doesNotHaveDuplicates();
+        assertThat(configurations.get(0)).containsEntry("baseType", "payara").containsEntry("useShiro", "true");
+        assertThat(configurations.get(1)).containsEntry("baseType", "infra").containsEntry("useLazyModel", "true");
+        assertThat(configurations.get(2)).containsEntry("baseType", "payara").containsEntry("usePrimeFaces", "false");
+    }
+
+    @Test
+    void limitIsHonored() {
+        List<Parameter[]> configurations = CacheWarmer.configurations(BASE_TYPES, 3);
+        assertThat(configurations).hasSize(3);
+    }
+}
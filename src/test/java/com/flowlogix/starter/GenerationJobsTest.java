@@ -0,0 +1,149 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.flowlogix.starter;
+
+import com.flowlogix.starter.ArchetypeGenerator.Parameter;
+import com.flowlogix.starter.ArchetypeGenerator.ReturnValue;
+import com.flowlogix.starter.GenerationJob.State;
+import com.flowlogix.starter.GenerationJob.Status;
+import com.flowlogix.starter.engine.GeneratorEngine;
+import lombok.SneakyThrows;
+import org.apache.commons.compress.archivers.zip.ZipFile;
+import org.apache.commons.compress.utils.SeekableInMemoryByteChannel;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GenerationJobsTest {
+    private static final long TIMEOUT_SECONDS = 10;
+    private final AsyncExecutor executor = new AsyncExecutor(true);
+    private final CountDownLatch generating = new CountDownLatch(1);
+    private final CountDownLatch proceed = new CountDownLatch(1);
+
+    @BeforeEach
+    void start() {
+        executor.start();
+    }
+
+    @AfterEach
+    void stop() {
+        executor.stop();
+    }
+
+    @Test
+    void progressIsReportedUntilTheArchiveIsReady() throws IOException {
+        var jobs = jobs((projectDirectory, commandLine) -> {
+            await();
+            write(projectDirectory.resolve("pom.xml"), "pom");
+            return new ReturnValue(projectDirectory, 0, "");
+        });
+        GenerationJob job = jobs.submit(parameters(), ArchiveFormat.ZIP, "starter.zip", null);
+        awaitGenerating();
+        List<State> states = follow(job);
+        proceed.countDown();
+        awaitFinished(job);
+
+        assertThat(states).containsExactly(State.GENERATING, State.ZIPPING, State.READY);
+        ByteBuffer archive = job.getArchive().orElseThrow();
+        byte[] bytes = new byte[archive.remaining()];
+        archive.get(bytes);
+        try (var zipFile = ZipFile.builder().setSeekableByteChannel(new SeekableInMemoryByteChannel(bytes)).get()) {
+            assertThat(zipFile.getInputStream(zipFile.getEntry("pom.xml"))).hasContent("pom");
+        }
+        assertThat(jobs.get(job.getId())).contains(job);
+    }
+
+    @Test
+    void failedGenerationKeepsItsOutput() {
+        var jobs = jobs((projectDirectory, commandLine) -> new ReturnValue(projectDirectory, 1, "BUILD FAILURE"));
+        GenerationJob job = jobs.submit(parameters(), ArchiveFormat.ZIP, "starter.zip", null);
+        awaitFinished(job);
+
+        assertThat(job.getStatus().state()).isEqualTo(State.FAILED);
+        assertThat(job.getOutput()).contains("BUILD FAILURE");
+        assertThat(job.getArchive()).isEmpty();
+    }
+
+    @Test
+    void cancelledJobIsForgotten() {
+        var jobs = jobs((projectDirectory, commandLine) -> {
+            await();
+            return new ReturnValue(projectDirectory, 0, "");
+        });
+        GenerationJob job = jobs.submit(parameters(), ArchiveFormat.ZIP, "starter.zip", null);
+        awaitGenerating();
+        assertThat(jobs.cancel(job.getId())).isTrue();
+        proceed.countDown();
+
+        assertThat(job.getStatus().state()).isEqualTo(State.CANCELLED);
+        assertThat(jobs.get(job.getId())).isEmpty();
+        assertThat(jobs.cancel(job.getId())).isFalse();
+    }
+
+    private GenerationJobs jobs(GeneratorEngine engine) {
+        return new GenerationJobs(new ArchetypeGenerator(1, engine), new ArchetypeVersionResolver(),
+                executor, TIMEOUT_SECONDS, 2);
+    }
+
+    private static List<State> follow(GenerationJob job) {
+        List<State> states = new CopyOnWriteArrayList<>();
+        job.subscribe(status -> states.add(status.state()));
+        return states;
+    }
+
+    @SneakyThrows(InterruptedException.class)
+    private static void awaitFinished(GenerationJob job) {
+        var finished = new CountDownLatch(1);
+        job.subscribe((Status status) -> {
+            if (status.state().isFinished()) {
+                finished.countDown();
+            }
+        });
+        assertThat(finished.await(TIMEOUT_SECONDS, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @SneakyThrows(InterruptedException.class)
+    private void awaitGenerating() {
+        assertThat(generating.await(TIMEOUT_SECONDS, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @SneakyThrows(InterruptedException.class)
+    private void await() {
+        generating.countDown();
+        proceed.await(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    }
+
+    @SneakyThrows(IOException.class)
+    private static void write(Path path, String content) {
+        Files.writeString(path, content);
+    }
+
+    private static Parameter[] parameters() {
+        return new Parameter[] {new Parameter(ArchetypeGenerator.ARCHETYPE_VERSION, "1.0")};
+    }
+}
@@ -0,0 +1,213 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.flowlogix.starter;
+
+import com.flowlogix.starter.ArchetypeGenerator.Parameter;
+import com.flowlogix.starter.ArchetypeGenerator.ReturnValue;
+import com.flowlogix.starter.engine.ProcessEngine;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.IntStream;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Drives the generator with many concurrent clients against a stand-in {@code mvn}.
+ * Run with {@code mvn verify -P loadtest}, tuning the {@code loadtest.*} properties.
+ */
+@Slf4j
+@EnabledIfSystemProperty(named = "loadtest.enabled", matches = "true")
+class GeneratorLoadIT {
+    @SuppressWarnings("checkstyle:MagicNumber")
+    private static final long SAMPLE_MILLIS = 100;
+    @SuppressWarnings("checkstyle:MagicNumber")
+    private static final double P99 = 0.99;
+    private static final double P50 = 0.5;
+    private static final Path REPORT = Path.of("target/loadtest-report.txt");
+    private static Path fakeMaven;
+
+    private record Result(String setting, int requests, int failures, long elapsedNanos, long[] latencies,
+                          int peakThreads, long peakDiskBytes) {
+        @SuppressWarnings("checkstyle:MagicNumber")
+        String format() {
+            Arrays.sort(latencies);
+            return "%-8s requests=%d failures=%d throughput=%.2f/s p50=%dms p99=%dms peakThreads=%d peakDisk=%dKiB"
+                    .formatted(setting, requests, failures, requests / (elapsedNanos / 1e9),
+                            percentile(latencies, P50), percentile(latencies, P99),
+                            peakThreads, peakDiskBytes / 1024);
+        }
+
+        private static long percentile(long[] sorted, double quantile) {
+            return sorted.length == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(
+                    sorted[Math.max(0, (int) Math.ceil(quantile * sorted.length) - 1)]);
+        }
+    }
+
+    @BeforeAll
+    static void createFakeMaven() throws IOException {
+        var script = Path.of("target/test-classes/fake-mvn.sh").toAbsolutePath();
+        fakeMaven = Path.of("target/fake-mvn").toAbsolutePath();
+        Files.writeString(fakeMaven, """
+                #!/bin/sh
+                export FAKE_MVN_LATENCY_MS=%s FAKE_MVN_JITTER_MS=%s FAKE_MVN_SLOW_PERCENT=%s FAKE_MVN_SLOW_MS=%s
+                export FAKE_MVN_FILES=%s FAKE_MVN_FILE_SIZE=%s FAKE_MVN_FAILURE_PERCENT=%s
+                exec bash "%s" "$@"
+                """.formatted(property("latency-ms", "500"), property("jitter-ms", "250"),
+                property("slow-percent", "0"), property("slow-ms", "0"), property("files", "100"),
+                property("file-size", "4096"), property("failure-percent", "0"), script));
+        Files.setPosixFilePermissions(fakeMaven, PosixFilePermissions.fromString("rwxr-xr-x"));
+        Files.deleteIfExists(REPORT);
+    }
+
+    @Test
+    void generateAndStream() throws Exception {
+        Set<Path> existing = workspaces();
+        for (int threads : Arrays.stream(property("threads", "1,2,4,8").split(","))
+                .map(String::trim).mapToInt(Integer::parseInt).toArray()) {
+            var generator = new ArchetypeGenerator(threads, new ProcessEngine(fakeMaven.toString()));
+            try (var zipExecutor = Executors.newVirtualThreadPerTaskExecutor()) {
+                report(run("threads=" + threads, client -> generate(generator, client, zipExecutor)));
+            }
+        }
+        assertThat(workspaces()).as("leaked workspaces").isEqualTo(existing);
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "loadtest.url", matches = ".+")
+    void restEndpoint() throws Exception {
+        try (var client = HttpClient.newHttpClient()) {
+            var request = HttpRequest.newBuilder(URI.create(property("url", ""))).GET().build();
+            report(run("rest", ignored -> client.send(request, HttpResponse.BodyHandlers.discarding())
+                    .statusCode() == HttpURLConnection.HTTP_OK));
+        }
+    }
+
+    private static boolean generate(ArchetypeGenerator generator, int client, ExecutorService zipExecutor) {
+        ReturnValue result = generator.generateArchetype(new Parameter[] {
+                new Parameter("artifactId", "load" + client)}, "client-" + client);
+        if (result.status() != 0) {
+            result.close();
+            return false;
+        }
+        generator.createZipStream(result, ArchiveFormat.ZIP, OutputStream.nullOutputStream(), zipExecutor);
+        return true;
+    }
+
+    private interface Request {
+        boolean send(int client) throws Exception;
+    }
+
+    private static Result run(String setting, Request request) throws Exception {
+        int clients = Integer.parseInt(property("clients", "32"));
+        int requests = Integer.parseInt(property("requests", "200"));
+        var latencies = new AtomicLongArray(requests);
+        var failures = new AtomicInteger();
+        var next = new AtomicInteger();
+        var peakDisk = new AtomicLong();
+        var threadBean = ManagementFactory.getThreadMXBean();
+        threadBean.resetPeakThreadCount();
+        try (var sampler = Executors.newSingleThreadScheduledExecutor();
+             var executor = Executors.newFixedThreadPool(clients)) {
+            sampler.scheduleAtFixedRate(() -> peakDisk.accumulateAndGet(diskUsage(), Math::max),
+                    0, SAMPLE_MILLIS, TimeUnit.MILLISECONDS);
+            long start = System.nanoTime();
+            List<Callable<Void>> tasks = IntStream.range(0, clients).<Callable<Void>>mapToObj(client -> () -> {
+                for (int index = next.getAndIncrement(); index < requests; index = next.getAndIncrement()) {
+                    long requestStart = System.nanoTime();
+                    if (!request.send(client)) {
+                        failures.incrementAndGet();
+                    }
+                    latencies.set(index, System.nanoTime() - requestStart);
+                }
+                return null;
+            }).toList();
+            for (var future : executor.invokeAll(tasks)) {
+                future.get();
+            }
+            return new Result(setting, requests, failures.get(), System.nanoTime() - start,
+                    IntStream.range(0, requests).mapToLong(latencies::get).toArray(),
+                    threadBean.getPeakThreadCount(), peakDisk.get());
+        }
+    }
+
+    private static void report(Result result) throws IOException {
+        String line = result.format();
+        log.info("Load test: {}", line);
+        Files.writeString(REPORT, line + System.lineSeparator(),
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    private static Set<Path> workspaces() throws IOException {
+        Set<Path> workspaces = new HashSet<>();
+        try (var instances = Files.list(new WorkspaceManager().getRoot())) {
+            for (Path instance : instances.filter(path -> path.getFileName().toString()
+                    .startsWith(WorkspaceManager.INSTANCE_PREFIX)).toList()) {
+                try (var paths = Files.list(instance)) {
+                    paths.filter(path -> path.getFileName().toString().startsWith(WorkspaceManager.PREFIX))
+                            .forEach(workspaces::add);
+                }
+            }
+        }
+        return workspaces;
+    }
+
+    private static long diskUsage() {
+        try {
+            long total = 0;
+            for (Path workspace : workspaces()) {
+                try (var files = Files.walk(workspace)) {
+                    total += files.filter(Files::isRegularFile).mapToLong(path -> path.toFile().length()).sum();
+                }
+            }
+            return total;
+        } catch (IOException | UncheckedIOException e) {
+            // workspaces are deleted concurrently while they are being measured
+            return 0;
+        }
+    }
+
+    private static String property(String name, String defaultValue) {
+        return System.getProperty("loadtest." + name, defaultValue);
+    }
+}
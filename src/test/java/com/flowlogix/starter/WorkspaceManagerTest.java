@@ -0,0 +1,115 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.flowlogix.starter;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WorkspaceManagerTest {
+    private static final int FILE_SIZE = 100;
+    @TempDir
+    Path root;
+
+    @Test
+    void releaseDeletesWhenReaperIsNotRunning() throws IOException {
+        var workspaces = new WorkspaceManager(Optional.of(root.toString()), 0, 0);
+        Path workspace = workspaces.create();
+        Files.write(workspace.resolve("pom.xml"), new byte[FILE_SIZE]);
+        workspaces.release(workspace);
+        assertThat(workspace).doesNotExist();
+        assertThat(workspaces.getPending()).isZero();
+    }
+
+    @Test
+    void sweepDeletesOnlyWorkspacesCreatedBeforeCutoff() throws IOException {
+        var workspaces = new WorkspaceManager(Optional.of(root.toString()), 0, 0);
+        Path orphan = workspaces.create();
+        Files.write(orphan.resolve(".mvn").resolve("maven.config"), new byte[FILE_SIZE]);
+        Path unrelated = Files.createDirectory(root.resolve("unrelated"));
+        workspaces.sweep(Instant.now().plus(Duration.ofMinutes(1)));
+        assertThat(orphan).doesNotExist();
+        assertThat(unrelated).exists();
+        assertThat(workspaces.getOrphans()).isOne();
+        assertThat(workspaces.getReclaimedBytes()).isEqualTo(FILE_SIZE);
+
+        Path active = workspaces.create();
+        workspaces.sweep(Instant.now().minus(Duration.ofMinutes(1)));
+        assertThat(active).exists();
+    }
+
+    @Test
+    void onlyInstancesThatAreGoneAreSwept() throws IOException {
+        var running = new WorkspaceManager(Optional.of(root.toString()), 0, 0);
+        Path live = running.create();
+        Path gone = Files.createDirectories(root.resolve(WorkspaceManager.INSTANCE_PREFIX + "gone")
+                .resolve(WorkspaceManager.PREFIX + "1"));
+        Files.createFile(gone.getParent().resolve(WorkspaceManager.LOCK));
+
+        var workspaces = new WorkspaceManager(Optional.of(root.toString()), 0, 0);
+        workspaces.sweepInstances(Instant.now().plus(Duration.ofMinutes(1)));
+        assertThat(live).exists();
+        assertThat(gone.getParent()).doesNotExist();
+        assertThat(workspaces.getOrphans()).isOne();
+
+        running.stop();
+        assertThat(live.getParent()).doesNotExist();
+    }
+
+    @Test
+    void sharedWorkspacesLeftByEarlierVersionsAreSwept() throws IOException {
+        Path orphan = Files.createDirectories(root.resolve(WorkspaceManager.PREFIX + "1").resolve(".mvn"));
+        Path unrelated = Files.createDirectory(root.resolve("unrelated"));
+        var workspaces = new WorkspaceManager(Optional.of(root.toString()), 0, 0);
+        workspaces.sweepShared(Instant.now().minus(Duration.ofMinutes(1)));
+        assertThat(orphan).exists();
+
+        workspaces.sweepShared(Instant.now().plus(Duration.ofMinutes(1)));
+        assertThat(orphan.getParent()).doesNotExist();
+        assertThat(unrelated).exists();
+        assertThat(workspaces.getOrphans()).isOne();
+    }
+
+    @Test
+    void memoryWorkspaceFallsBackToTemporaryDirectory() throws IOException {
+        Path temporary = Path.of(System.getProperty("java.io.tmpdir"));
+        Path sharedMemory = Files.createDirectory(root.resolve("shm"));
+        assertThat(WorkspaceManager.toRoot("memory", sharedMemory)).isEqualTo(sharedMemory);
+        assertThat(WorkspaceManager.toRoot("MEMORY", root.resolve("missing"))).isEqualTo(temporary);
+        assertThat(WorkspaceManager.toRoot(root.toString(), sharedMemory)).isEqualTo(root);
+        assertThat(new WorkspaceManager(Optional.of(" "), 0, 0).getRoot()).isEqualTo(temporary);
+    }
+
+    @Test
+    void memoryWorkspaceIsCreatedAndReleased() throws IOException {
+        var workspaces = new WorkspaceManager(Optional.of("memory"), 0, 0);
+        Path workspace = workspaces.create();
+        assertThat(workspace).startsWith(workspaces.getRoot());
+        workspaces.release(workspace);
+        assertThat(workspace).doesNotExist();
+        workspaces.stop();
+        assertThat(workspace.getParent()).doesNotExist();
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.flowlogix.starter.api;
+
+import com.flowlogix.starter.api.DownloadConditions.ByteRange;
+import jakarta.ws.rs.WebApplicationException;
+import org.junit.jupiter.api.Test;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SuppressWarnings("checkstyle:MagicNumber")
+class DownloadConditionsTest {
+    private static final String TAG = "tag";
+    private static final String OVERFLOW = "99999999999999999999";
+
+    @Test
+    void rangeEndIsClampedToTheArchive() {
+        assertThat(range("bytes=10-" + OVERFLOW).byteRange(TAG, 100)).isEqualTo(new ByteRange(10, 99));
+        assertThat(range("bytes=-" + OVERFLOW).byteRange(TAG, 100)).isEqualTo(new ByteRange(0, 99));
+    }
+
+    @Test
+    void rangeStartPastTheArchiveIsUnsatisfiable() {
+        assertThatThrownBy(() -> range("bytes=" + OVERFLOW + "-").byteRange(TAG, 100))
+                .isInstanceOf(WebApplicationException.class);
+        assertThatThrownBy(() -> range("bytes=100-").byteRange(TAG, 100))
+                .isInstanceOf(WebApplicationException.class);
+    }
+
+    @Test
+    void rangeBeyondAnInMemoryArchiveIsUnsatisfiable() {
+        assertThatThrownBy(() -> range("bytes=0-").byteRange(TAG, Integer.MAX_VALUE + 2L))
+                .isInstanceOf(WebApplicationException.class);
+    }
+
+    @Test
+    void rangeOfAnotherVersionGetsTheWholeArchive() {
+        assertThat(new DownloadConditions(null, "bytes=0-9", "\"other\"").byteRange(TAG, 100)).isNull();
+    }
+
+    private static DownloadConditions range(String range) {
+        return new DownloadConditions(null, range, null);
+    }
+}
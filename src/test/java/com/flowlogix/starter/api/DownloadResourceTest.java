@@ -0,0 +1,232 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.flowlogix.starter.api;
+
+import com.flowlogix.starter.AdmissionRejectedException;
+import com.flowlogix.starter.ArchetypeGenerator;
+import com.flowlogix.starter.ArchetypeGenerator.Parameter;
+import com.flowlogix.starter.ArchetypeGenerator.ReturnValue;
+import com.flowlogix.starter.ArchiveFormat;
+import com.flowlogix.starter.AsyncExecutor;
+import com.flowlogix.starter.GenerationCancelledException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.ws.rs.container.AsyncResponse;
+import jakarta.ws.rs.container.ConnectionCallback;
+import jakarta.ws.rs.container.TimeoutHandler;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.StreamingOutput;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import java.io.ByteArrayOutputStream;
+import java.lang.reflect.Proxy;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DownloadResourceTest {
+    @SuppressWarnings("checkstyle:MagicNumber")
+    private static final int TIMEOUT_SECONDS = 10;
+    private static final String ARCHIVE = "archive";
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final CompletableFuture<Object> resumed = new CompletableFuture<>();
+    private final CompletableFuture<ConnectionCallback> callback = new CompletableFuture<>();
+    private final CompletableFuture<TimeoutHandler> timeoutHandler = new CompletableFuture<>();
+    private final DownloadResource resource = new DownloadResource();
+
+    @BeforeEach
+    void setUp() {
+        resource.asyncExecutor = new AsyncExecutor() {
+            @Override
+            public Future<?> submit(Runnable task) {
+                return executor.submit(task);
+            }
+        };
+        resource.request = proxy(HttpServletRequest.class, "getRemoteAddr", "client");
+        resource.headers = proxy(HttpHeaders.class, "getHeaderString", null);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void archiveIsResumed() throws Exception {
+        resource.generator = generator(parameters -> new ReturnValue(null, 0, "",
+                ByteBuffer.wrap(ARCHIVE.getBytes(UTF_8)), Map.of()));
+        resource.downloadFileAsync(new DownloadParameters(), asyncResponse());
+
+        var response = (Response) resumed.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        assertThat(response.getStatus()).isEqualTo(Response.Status.OK.getStatusCode());
+        var bytes = new ByteArrayOutputStream();
+        ((StreamingOutput) response.getEntity()).write(bytes);
+        assertThat(bytes.toString(UTF_8)).isEqualTo(ARCHIVE);
+    }
+
+    @Test
+    void rejectionIsResumedAsServiceUnavailable() throws Exception {
+        resource.generator = generator(parameters -> {
+            throw new AdmissionRejectedException("Generation queue is full", Duration.ofSeconds(2));
+        });
+        resource.downloadFileAsync(new DownloadParameters(), asyncResponse());
+
+        var rejected = (AdmissionRejectedException) resumed.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        Response response = new AdmissionRejectedMapper().toResponse(rejected);
+        assertThat(response.getStatus()).isEqualTo(Response.Status.SERVICE_UNAVAILABLE.getStatusCode());
+        assertThat(response.getHeaderString(HttpHeaders.RETRY_AFTER)).isEqualTo("2");
+    }
+
+    @Test
+    void failedGenerationIsResumedAsServerError() throws Exception {
+        resource.generator = generator(parameters -> new ReturnValue(null, 1, "Maven failed"));
+        resource.downloadFileAsync(new DownloadParameters(), asyncResponse());
+
+        var response = (Response) resumed.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        assertThat(response.getStatus()).isEqualTo(Response.Status.INTERNAL_SERVER_ERROR.getStatusCode());
+        assertThat(response.getEntity()).isEqualTo("Maven failed");
+    }
+
+    @Test
+    void exceptionIsResumed() throws Exception {
+        var failure = new IllegalStateException("failure");
+        resource.generator = generator(parameters -> {
+            throw failure;
+        });
+        resource.downloadFileAsync(new DownloadParameters(), asyncResponse());
+
+        assertThat(resumed.get(TIMEOUT_SECONDS, TimeUnit.SECONDS)).isSameAs(failure);
+    }
+
+    @Test
+    void disconnectCancelsGeneration() throws Exception {
+        var generating = new CountDownLatch(1);
+        var cancelled = new CountDownLatch(1);
+        resource.generator = generator(parameters -> {
+            generating.countDown();
+            try {
+                Thread.sleep(Duration.ofSeconds(TIMEOUT_SECONDS));
+            } catch (InterruptedException e) {
+                cancelled.countDown();
+                throw new GenerationCancelledException("Cancelled", e);
+            }
+            return new ReturnValue(null, 0, "");
+        });
+        AsyncResponse response = asyncResponse();
+        resource.downloadFileAsync(new DownloadParameters(), response);
+
+        assertThat(generating.await(TIMEOUT_SECONDS, TimeUnit.SECONDS)).isTrue();
+        callback.get(TIMEOUT_SECONDS, TimeUnit.SECONDS).onDisconnect(response);
+        assertThat(cancelled.await(TIMEOUT_SECONDS, TimeUnit.SECONDS)).isTrue();
+        assertThat(resumed.get(TIMEOUT_SECONDS, TimeUnit.SECONDS)).isInstanceOf(GenerationCancelledException.class);
+    }
+
+    @Test
+    void disconnectWhileSubmittingCancelsGeneration() throws Exception {
+        resource.generator = generator(parameters -> new ReturnValue(null, 0, ""));
+        AsyncResponse response = asyncResponse();
+        var submitted = new CompletableFuture<Future<?>>();
+        resource.asyncExecutor = new AsyncExecutor() {
+            @Override
+            public Future<?> submit(Runnable task) {
+                callback.getNow(null).onDisconnect(response);
+                var future = new FutureTask<>(task, null);
+                submitted.complete(future);
+                return future;
+            }
+        };
+        resource.downloadFileAsync(new DownloadParameters(), response);
+
+        assertThat(submitted.get(TIMEOUT_SECONDS, TimeUnit.SECONDS).isCancelled()).isTrue();
+    }
+
+    @Test
+    void timeoutCancelsGeneration() throws Exception {
+        var generating = new CountDownLatch(1);
+        var cancelled = new CountDownLatch(1);
+        resource.generator = generator(parameters -> {
+            generating.countDown();
+            try {
+                Thread.sleep(Duration.ofSeconds(TIMEOUT_SECONDS));
+            } catch (InterruptedException e) {
+                cancelled.countDown();
+                throw new GenerationCancelledException("Cancelled", e);
+            }
+            return new ReturnValue(null, 0, "");
+        });
+        AsyncResponse response = asyncResponse();
+        resource.downloadFileAsync(new DownloadParameters(), response);
+
+        assertThat(generating.await(TIMEOUT_SECONDS, TimeUnit.SECONDS)).isTrue();
+        timeoutHandler.get(TIMEOUT_SECONDS, TimeUnit.SECONDS).handleTimeout(response);
+        assertThat(((Response) resumed.get(TIMEOUT_SECONDS, TimeUnit.SECONDS)).getStatus())
+                .isEqualTo(Response.Status.SERVICE_UNAVAILABLE.getStatusCode());
+        assertThat(cancelled.await(TIMEOUT_SECONDS, TimeUnit.SECONDS)).isTrue();
+    }
+
+    private static ArchetypeGenerator generator(Function<Parameter[], ReturnValue> generate) {
+        return new ArchetypeGenerator() {
+            @Override
+            public ReturnValue generateArchetype(Parameter[] inputParameters, String clientId) {
+                return generate.apply(inputParameters);
+            }
+
+            @Override
+            public Optional<String> entityTag(Parameter[] inputParameters, ArchiveFormat format) {
+                return Optional.empty();
+            }
+        };
+    }
+
+    private AsyncResponse asyncResponse() {
+        return (AsyncResponse) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] {AsyncResponse.class},
+                (proxy, method, arguments) -> switch (method.getName()) {
+                    case "resume" -> resumed.complete(arguments[0]);
+                    case "register" -> {
+                        callback.complete((ConnectionCallback) arguments[0]);
+                        yield List.of();
+                    }
+                    case "setTimeoutHandler" -> timeoutHandler.complete((TimeoutHandler) arguments[0]);
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    private static <T> T proxy(Class<T> type, String name, Object value) {
+        return type.cast(Proxy.newProxyInstance(DownloadResourceTest.class.getClassLoader(), new Class<?>[] {type},
+                (proxy, method, arguments) -> {
+                    if (method.getName().equals(name)) {
+                        return value;
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                }));
+    }
+}
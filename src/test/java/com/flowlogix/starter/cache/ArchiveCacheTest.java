@@ -0,0 +1,73 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.flowlogix.starter.cache;
+
+import org.junit.jupiter.api.Test;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.Map;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ArchiveCacheTest {
+    @SuppressWarnings("checkstyle:MagicNumber")
+    private static final int HALF_MEGABYTE = 512 * 1024;
+
+    @Test
+    void keyIsIndependentOfParameterOrder() {
+        assertThat(ArchiveCache.key(Map.of("groupId", "com.example", "artifactId", "starter")))
+                .isEqualTo(ArchiveCache.key(Map.of("artifactId", "starter", "groupId", "com.example")))
+                .isNotEqualTo(ArchiveCache.key(Map.of("artifactId", "other", "groupId", "com.example")));
+    }
+
+    @Test
+    void cachedArchiveIsReturned() {
+        var cache = new ArchiveCache(true, 1, 1);
+        cache.put("key", new byte[] {1, 2, 3});
+        assertThat(cache.get("key")).map(ByteBuffer::remaining).contains(3);
+        assertThat(cache.get("missing")).isEmpty();
+    }
+
+    @Test
+    void leastRecentlyUsedIsEvicted() {
+        var cache = new ArchiveCache(true, 1, 1);
+        cache.put("first", new byte[HALF_MEGABYTE]);
+        cache.put("second", new byte[HALF_MEGABYTE]);
+        assertThat(cache.get("first")).isPresent();
+        cache.put("third", new byte[HALF_MEGABYTE]);
+        assertThat(cache.get("first")).isPresent();
+        assertThat(cache.get("second")).isEmpty();
+        assertThat(cache.size()).isEqualTo(2L * HALF_MEGABYTE);
+    }
+
+    @Test
+    void freshnessAccountsForMargin() {
+        var cache = new ArchiveCache(true, 1, 1);
+        cache.put("key", new byte[] {1});
+        assertThat(cache.isFresh("key", Duration.ofSeconds(1))).isTrue();
+        assertThat(cache.isFresh("key", Duration.ofMinutes(1))).isFalse();
+        assertThat(cache.isFresh("missing", Duration.ZERO)).isFalse();
+    }
+
+    @Test
+    void disabledCacheStoresNothing() {
+        var cache = new ArchiveCache();
+        assertThat(cache.put("key", new byte[] {1}).remaining()).isOne();
+        assertThat(cache.get("key")).isEmpty();
+    }
+}
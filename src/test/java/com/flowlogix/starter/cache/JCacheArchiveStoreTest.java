@@ -0,0 +1,76 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.flowlogix.starter.cache;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.time.Instant;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JCacheArchiveStoreTest {
+    private static final long MAX_BYTES = 1024;
+    private static final Duration TTL = Duration.ofMinutes(1);
+    private CacheManager cacheManager;
+    private JCacheArchiveStore node;
+    private JCacheArchiveStore otherNode;
+
+    @BeforeEach
+    void createNodes() {
+        cacheManager = Caching.getCachingProvider().getCacheManager();
+        node = new JCacheArchiveStore(cacheManager, "archives", new LocalArchiveStore(MAX_BYTES, TTL),
+                MAX_BYTES / 2, TTL);
+        otherNode = new JCacheArchiveStore(cacheManager, "archives", new LocalArchiveStore(MAX_BYTES, TTL),
+                MAX_BYTES / 2, TTL);
+    }
+
+    @AfterEach
+    void destroyCaches() {
+        cacheManager.getCacheNames().forEach(cacheManager::destroyCache);
+    }
+
+    @Test
+    void archivesAreShared() {
+        node.put("key", new byte[] {1, 2, 3});
+        assertThat(otherNode.size()).isZero();
+        assertThat(otherNode.get("key")).map(ByteBuffer::remaining).contains(3);
+        assertThat(otherNode.size()).isEqualTo(3);
+        assertThat(otherNode.isFresh("key", TTL.dividedBy(2))).isTrue();
+        assertThat(otherNode.isFresh("key", TTL.multipliedBy(2))).isFalse();
+    }
+
+    @Test
+    void largeArchivesStayLocal() {
+        node.put("large", new byte[(int) MAX_BYTES - 1]);
+        assertThat(node.get("large")).isPresent();
+        assertThat(otherNode.get("large")).isEmpty();
+    }
+
+    @Test
+    void versionsAreSharedUntilTheyExpire() {
+        node.putVersion("LATEST", "55", Instant.now().plus(TTL));
+        assertThat(otherNode.getVersion("LATEST")).contains("55");
+        node.putVersion("LATEST", "56", Instant.now().minus(TTL));
+        assertThat(otherNode.getVersion("LATEST")).isEmpty();
+    }
+}
@@ -0,0 +1,45 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.flowlogix.starter.engine;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class EmbeddedMavenTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    void configuredMavenHomeIsUsed() throws IOException {
+        Files.createDirectory(directory.resolve("lib"));
+        assertThat(EmbeddedMaven.findMavenHome(directory.toString())).contains(directory);
+    }
+
+    @Test
+    void invalidMavenHomeIsRejected() {
+        assertThat(EmbeddedMaven.findMavenHome(directory.toString())).isEmpty();
+        assertThatThrownBy(() -> EmbeddedMaven.create(directory.toString()))
+                .isInstanceOf(IOException.class).hasMessage("Maven installation not found");
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.flowlogix.starter.engine;
+
+import com.flowlogix.starter.GenerationCancelledException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@Timeout(60)
+class ProcessEngineTest {
+    private static final int OUTPUT_LIMIT = 1024;
+    private static final int TIMEOUT_SECONDS = 30;
+    private static final long STARTUP_MILLIS = 500;
+    @TempDir
+    Path directory;
+
+    @Test
+    void outputIsDrainedAndTruncated() throws IOException {
+        var engine = new ProcessEngine(script("head -c 1000000 /dev/zero | tr '\\0' x; echo; echo done >&2"),
+                TIMEOUT_SECONDS, OUTPUT_LIMIT);
+        var result = engine.generate(directory, List.of("mvn"));
+        assertThat(result.status()).isZero();
+        assertThat(result.output()).startsWith("...").endsWith("done\n")
+                .hasSizeLessThanOrEqualTo(OUTPUT_LIMIT + "...\n".length());
+    }
+
+    @Test
+    void timeoutKillsProcess() throws IOException {
+        var engine = new ProcessEngine(script("sleep 60 & wait"), 1, OUTPUT_LIMIT);
+        var result = engine.generate(directory, List.of("mvn"));
+        assertThat(result.status()).isEqualTo(-1);
+        assertThat(result.output()).startsWith("Maven timed out");
+    }
+
+    @Test
+    void interruptCancels() throws IOException, InterruptedException {
+        var engine = new ProcessEngine(script("sleep 60"), TIMEOUT_SECONDS, OUTPUT_LIMIT);
+        var result = new CompletableFuture<>();
+        var thread = Thread.ofVirtual().start(() -> {
+            try {
+                result.complete(engine.generate(directory, List.of("mvn")));
+            } catch (RuntimeException e) {
+                result.completeExceptionally(e);
+            }
+        });
+        Thread.sleep(STARTUP_MILLIS);
+        thread.interrupt();
+        assertThatThrownBy(result::get).isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(GenerationCancelledException.class);
+    }
+
+    private String script(String body) throws IOException {
+        Path script = Files.createTempFile(directory, "mvn", ".sh",
+                PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rwx------")));
+        Files.writeString(script, "#!/bin/sh\n" + body + "\n");
+        return script.toString();
+    }
+}
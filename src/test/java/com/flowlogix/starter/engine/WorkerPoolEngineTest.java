@@ -0,0 +1,180 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.flowlogix.starter.engine;
+
+import jakarta.enterprise.concurrent.ManagedScheduledExecutorService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Workers are stand-in shell scripts that speak the {@link MavenWorker} protocol
+ * and record their process ids.
+ */
+@Timeout(60)
+class WorkerPoolEngineTest {
+    private static final int TIMEOUT_SECONDS = 30;
+    private static final long POLL_MILLIS = 50;
+    @TempDir
+    Path directory;
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
+    private WorkerPoolEngine engine;
+
+    @AfterEach
+    void stop() throws IOException, InterruptedException {
+        if (engine != null) {
+            engine.stop();
+        }
+        executor.shutdownNow();
+        awaitPids(0);
+    }
+
+    @Test
+    void workerIsRecycledAfterMaxJobs() throws Exception {
+        engine = start(1, 2, "");
+        assertThat(engine.getLiveWorkers()).isOne();
+        String first = engine.generate(directory, List.of("mvn")).output();
+        assertThat(engine.generate(directory, List.of("mvn")).output()).isEqualTo(first);
+        String recycled = engine.generate(directory, List.of("mvn")).output();
+        assertThat(recycled).isNotEqualTo(first);
+        settle();
+        assertThat(engine.getLiveWorkers()).isOne();
+        assertThat(awaitPids(1)).containsExactly(Long.valueOf(recycled));
+    }
+
+    @Test
+    void healthCheckReplacesDeadWorkerWithoutGrowingPool() throws Exception {
+        engine = start(2, Integer.MAX_VALUE, "");
+        assertThat(engine.getLiveWorkers()).isEqualTo(2);
+        long pid = Long.parseLong(engine.generate(directory, List.of("mvn")).output());
+        ProcessHandle worker = ProcessHandle.of(pid).orElseThrow();
+        worker.destroyForcibly();
+        worker.onExit().get();
+        engine.healthCheck();
+        settle();
+        engine.healthCheck();
+        settle();
+        assertThat(engine.getLiveWorkers()).isEqualTo(2);
+        assertThat(awaitPids(2)).doesNotContain(pid);
+    }
+
+    @Test
+    void healthCheckStartsWorkersThatFailedToStart() throws Exception {
+        Path available = directory.resolve("available");
+        engine = start(2, Integer.MAX_VALUE, "", "[ -f \"%s\" ] || exit 1".formatted(available));
+        assertThat(engine.getLiveWorkers()).isZero();
+        Files.createFile(available);
+        engine.healthCheck();
+        assertThat(engine.getLiveWorkers()).isEqualTo(2);
+        assertThat(awaitPids(2)).hasSize(2);
+    }
+
+    @Test
+    void stopDestroysBorrowedWorkers() throws Exception {
+        engine = start(1, Integer.MAX_VALUE, "sleep 60 & wait;");
+        var result = CompletableFuture.supplyAsync(() -> engine.generate(directory, List.of("mvn")));
+        while (!Files.exists(directory.resolve("running"))) {
+            Thread.sleep(POLL_MILLIS);
+        }
+        engine.stop();
+        assertThat(result.get().status()).isEqualTo(-1);
+        assertThat(engine.getLiveWorkers()).isZero();
+    }
+
+    private WorkerPoolEngine start(int poolSize, int maxJobs, String run) throws Exception {
+        return start(poolSize, maxJobs, run, "");
+    }
+
+    private WorkerPoolEngine start(int poolSize, int maxJobs, String run, String startup) throws Exception {
+        Path script = Files.createTempFile(directory, "worker", ".sh",
+                PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rwx------")));
+        Files.writeString(script, """
+                #!/bin/sh
+                %3$s
+                touch "%1$s/$$.pid"
+                echo "READY 1"
+                while read command arguments; do
+                    case "$command" in
+                        PING) echo "PONG 1" ;;
+                        RUN) touch "%1$s/running"; %2$s echo "RESULT 0 1 $(printf %%s $$ | base64)" ;;
+                    esac
+                done
+                """.formatted(directory, run, startup));
+        var pool = new WorkerPoolEngine(poolSize, maxJobs, Long.MAX_VALUE, List.of(script.toString()),
+                TIMEOUT_SECONDS, new ProcessEngine());
+        pool.scheduler = managed(executor);
+        pool.start(null);
+        settle();
+        return pool;
+    }
+
+    /**
+     * Replacements run on the single scheduler thread, in order.
+     */
+    private void settle() throws InterruptedException, ExecutionException {
+        executor.submit(() -> { }).get();
+    }
+
+    /**
+     * Destroyed workers take a moment to exit.
+     */
+    private List<Long> awaitPids(int count) throws IOException, InterruptedException {
+        List<Long> pids = livePids();
+        for (long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(TIMEOUT_SECONDS);
+             pids.size() > count && System.nanoTime() - deadline < 0; pids = livePids()) {
+            Thread.sleep(POLL_MILLIS);
+        }
+        assertThat(pids).hasSize(count);
+        return pids;
+    }
+
+    private List<Long> livePids() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(Path::getFileName).map(Path::toString).filter(name -> name.endsWith(".pid"))
+                    .map(name -> Long.valueOf(name.substring(0, name.length() - ".pid".length())))
+                    .filter(pid -> ProcessHandle.of(pid).map(ProcessHandle::isAlive).orElse(false)).toList();
+        }
+    }
+
+    private static ManagedScheduledExecutorService managed(ScheduledExecutorService executor) {
+        return (ManagedScheduledExecutorService) Proxy.newProxyInstance(WorkerPoolEngineTest.class.getClassLoader(),
+                new Class<?>[] {ManagedScheduledExecutorService.class}, (proxy, method, arguments) -> {
+                    try {
+                        return method.invoke(executor, arguments);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+    }
+}
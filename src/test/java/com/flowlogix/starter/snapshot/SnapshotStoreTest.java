@@ -0,0 +1,118 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.flowlogix.starter.snapshot;
+
+import com.flowlogix.starter.GenerationCancelledException;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import static com.flowlogix.starter.ArchetypeGenerator.ARCHETYPE_VERSION;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SnapshotStoreTest {
+    private static final int SNAPSHOT_BYTES = 600 * 1024;
+    private static final long STARTUP_MILLIS = 200;
+    private static final long TTL_MINUTES = 60;
+    private static final long LARGE_MEGABYTES = 1024;
+    @TempDir
+    Path directory;
+    private final AtomicInteger builds = new AtomicInteger();
+
+    @Test
+    void leastRecentlyUsedSnapshotIsEvicted() {
+        var store = new SnapshotStore(true, 1, TTL_MINUTES);
+        store.get(parameters("payara", "1"), this::build);
+        store.get(parameters("infra", "1"), this::build);
+        assertThat(store.size()).isOne();
+        assertThat(store.getBytes()).isEqualTo(SNAPSHOT_BYTES);
+
+        store.get(parameters("infra", "1"), this::build);
+        assertThat(builds).hasValue(2);
+        store.get(parameters("payara", "1"), this::build);
+        assertThat(builds).hasValue(3);
+    }
+
+    @Test
+    void previousLatestVersionIsDropped() {
+        var store = new SnapshotStore(true, LARGE_MEGABYTES, TTL_MINUTES);
+        store.retainLatest("1");
+        store.get(parameters("payara", "1"), this::build);
+        store.get(parameters("payara", "0"), this::build);
+        store.retainLatest("1");
+        assertThat(store.size()).isEqualTo(2);
+
+        store.retainLatest("2");
+        assertThat(store.size()).isOne();
+        store.get(parameters("payara", "0"), this::build);
+        assertThat(builds).hasValue(2);
+    }
+
+    @Test
+    void waitingForAnotherBuildIsInterruptible() throws InterruptedException {
+        var store = new SnapshotStore(true, 1, TTL_MINUTES);
+        var building = new CountDownLatch(1);
+        var finish = new CountDownLatch(1);
+        var builder = Thread.ofVirtual().start(() -> store.get(parameters("payara", "1"), () -> {
+            building.countDown();
+            await(finish);
+            return build();
+        }));
+        building.await();
+        var waiter = new CompletableFuture<Optional<Snapshot>>();
+        var thread = Thread.ofVirtual().start(() -> {
+            try {
+                waiter.complete(store.get(parameters("payara", "1"), this::build));
+            } catch (RuntimeException e) {
+                waiter.completeExceptionally(e);
+            }
+        });
+        Thread.sleep(STARTUP_MILLIS);
+        thread.interrupt();
+        assertThatThrownBy(waiter::get).isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(GenerationCancelledException.class);
+        finish.countDown();
+        builder.join();
+    }
+
+    @SneakyThrows(IOException.class)
+    private Optional<Snapshot> build() {
+        Path project = Files.createDirectories(directory.resolve(Integer.toString(builds.incrementAndGet())));
+        Files.write(project.resolve("pom.xml"), new byte[SNAPSHOT_BYTES]);
+        return Optional.of(Snapshot.load(project));
+    }
+
+    @SneakyThrows(InterruptedException.class)
+    private static void await(CountDownLatch latch) {
+        latch.await();
+    }
+
+    private static Map<String, String> parameters(String baseType, String version) {
+        return Map.of("baseType", baseType, ARCHETYPE_VERSION, version);
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.flowlogix.starter.snapshot;
+
+import com.flowlogix.starter.ArchetypeGenerator.Parameter;
+import org.apache.commons.compress.archivers.zip.ZipArchiveInputStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.zip.Deflater;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SnapshotTest {
+    private static final Map<String, String> PARAMETERS = Map.of("groupId", "org.acme", "artifactId", "shop",
+            "package", "org.acme.shop", "projectName", "Acme Shop", "version", "2.0", "baseType", "payara");
+    private final Map<String, String> sentinels = Arrays.stream(Snapshot.withSentinels(null))
+            .collect(Collectors.toMap(Parameter::key, Parameter::value));
+
+    @Test
+    void coordinatesAreRewritten(@TempDir Path directory) throws IOException {
+        Path project = directory.resolve(sentinels.get("artifactId"));
+        Path sources = project.resolve("src/main/java").resolve(sentinels.get("package").replace('.', '/'));
+        Files.createDirectories(sources);
+        Files.writeString(sources.resolve("App.java"), "package %s;".formatted(sentinels.get("package")));
+        Files.writeString(project.resolve("pom.xml"),
+                "<groupId>%s</groupId><name>%s</name><version>%s</version>".formatted(sentinels.get("groupId"),
+                        sentinels.get("projectName"), sentinels.get("version")));
+
+        Snapshot snapshot = Snapshot.load(directory);
+        assertThat(snapshot.isRewritable()).isTrue();
+        assertThat(unzip(snapshot)).containsOnly(
+                Map.entry("shop/src/main/java/org/acme/shop/App.java", "package org.acme.shop;"),
+                Map.entry("shop/pom.xml", "<groupId>org.acme</groupId><name>Acme Shop</name><version>2.0</version>"));
+    }
+
+    @Test
+    void derivedCoordinatesAreNotRewritable(@TempDir Path directory) throws IOException {
+        Files.writeString(directory.resolve("README.md"), sentinels.get("artifactId").toUpperCase());
+        assertThat(Snapshot.load(directory).isRewritable()).isFalse();
+    }
+
+    @Test
+    void structureIgnoresCoordinates() {
+        var other = new HashMap<>(PARAMETERS);
+        other.put("artifactId", "other");
+        assertThat(Snapshot.structure(other)).isEqualTo(Snapshot.structure(PARAMETERS))
+                .containsOnlyKeys("baseType");
+    }
+
+    private static Map<String, String> unzip(Snapshot snapshot) throws IOException {
+        var bytes = new ByteArrayOutputStream();
+        snapshot.render(PARAMETERS, bytes, Deflater.DEFAULT_COMPRESSION);
+        var entries = new HashMap<String, String>();
+        try (var zip = new ZipArchiveInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            for (var entry = zip.getNextEntry(); entry != null; entry = zip.getNextEntry()) {
+                entries.put(entry.getName(), new String(zip.readAllBytes(), UTF_8));
+            }
+        }
+        return entries;
+    }
+}
@@ -0,0 +1,46 @@
+#!/bin/bash
+# Stand-in for 'mvn archetype:generate', used by GeneratorLoadIT.
+# Sleeps for a configurable latency, writes a synthetic project tree and optionally fails.
+latency=${FAKE_MVN_LATENCY_MS:-500}
+jitter=${FAKE_MVN_JITTER_MS:-0}
+slow_percent=${FAKE_MVN_SLOW_PERCENT:-0}
+slow=${FAKE_MVN_SLOW_MS:-0}
+files=${FAKE_MVN_FILES:-100}
+file_size=${FAKE_MVN_FILE_SIZE:-4096}
+failure_percent=${FAKE_MVN_FAILURE_PERCENT:-0}
+
+for arg in "$@"; do
+    case "$arg" in
+        -DoutputDirectory=*) output=${arg#*=} ;;
+        -DartifactId=*) artifact=${arg#*=} ;;
+        -Dpackage=*) package=${arg#*=} ;;
+    esac
+done
+output=${output:-.}
+artifact=${artifact:-starter}
+package=${package:-com.example.starter}
+
+delay=$latency
+if (( jitter > 0 )); then
+    delay=$(( delay + RANDOM % (2 * jitter + 1) - jitter ))
+fi
+if (( RANDOM % 100 < slow_percent )); then
+    delay=$(( delay + slow ))
+fi
+(( delay < 0 )) && delay=0
+sleep "$(printf '%d.%03d' $(( delay / 1000 )) $(( delay % 1000 )))"
+
+echo "[INFO] Generating project in Batch mode"
+if (( RANDOM % 100 < failure_percent )); then
+    echo "[ERROR] Simulated archetype generation failure"
+    exit 1
+fi
+
+project=$output/$artifact
+sources=$project/src/main/java/${package//.//}
+mkdir -p "$sources"
+echo "<project/>" > "$project/pom.xml"
+for (( ii = 0; ii < files; ++ii )); do
+    head -c "$file_size" /dev/urandom | base64 | head -c "$file_size" > "$sources/File$ii.java"
+done
+echo "[INFO] BUILD SUCCESS"